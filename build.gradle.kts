@@ -1,5 +1,6 @@
 plugins {
     `java-library`
+    alias(libs.plugins.jmh) // benchmarks in src/jmh, run with ./gradlew jmh
 }
 
 repositories {
@@ -11,10 +12,17 @@ dependencies {
     compileOnly(libs.keycloak.services)
     compileOnly(libs.keycloak.server.spi)
     compileOnly(libs.keycloak.server.spi.private)
+    compileOnly(libs.keycloak.model.jpa)
 
     testImplementation(platform(libs.junit.bom))
     testImplementation(libs.junit.jupiter)
     testImplementation(libs.assertj)
+    // Keycloak models are mocked in tests of classes that work with them
+    testImplementation(libs.keycloak.core)
+    testImplementation(libs.keycloak.server.spi)
+    testImplementation(libs.keycloak.server.spi.private)
+    testImplementation(libs.keycloak.model.jpa)
+    testImplementation(libs.mockito.core)
     testRuntimeOnly(libs.junit.platform.launcher)
 }
 
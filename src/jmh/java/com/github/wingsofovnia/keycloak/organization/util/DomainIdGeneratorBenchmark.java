@@ -0,0 +1,43 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link DomainIdGenerator} strategies on a single thread and under contention, as during registration
+ * bursts. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainIdGeneratorBenchmark {
+
+    @Param({"UUID", "TIME_ORDERED", "SHORT", "ALIAS_HASH"})
+    private DomainIdGenerator generator;
+
+    @Benchmark
+    @Threads(1)
+    public String singleThread() {
+        return generator.idOf("my_organization", 0);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String contended() {
+        return generator.idOf("my_organization", 0);
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import com.github.wingsofovnia.keycloak.organization.util.Slugifier.Slug;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Slugifier} with the regex-based derivation of aliases and domain labels it replaced. Run with
+ * {@code ./gradlew jmh -Pjmh.includes=SlugifierBenchmark} and compare allocations with {@code -Pjmh.profilers=gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlugifierBenchmark {
+
+    @Param({"Acme", "  My   Organization Inc. ", "Caf\u00E9 M\u00FCller & S\u00F6hne GmbH", "\u041A\u0438\u0457\u0432\u0441\u044C\u043A\u0430 \u043A\u043E\u043C\u043F\u0430\u043D\u0456\u044F"})
+    private String name;
+
+    @Benchmark
+    public Slug regex() {
+        return new Slug(regexSafeNameOf(name, "_"), regexSafeNameOf(name, "-"));
+    }
+
+    @Benchmark
+    public Slug singlePass() {
+        return Slugifier.slugOf(name, false);
+    }
+
+    @Benchmark
+    public Slug singlePassTransliterated() {
+        return Slugifier.slugOf(name, true);
+    }
+
+    private static String regexSafeNameOf(String name, String delimiter) {
+        return name
+                .toLowerCase()
+                .trim()
+                .replaceAll("[^a-z0-9-_\\s]", "")
+                .replaceAll("[\\s-]+", delimiter);
+    }
+}
@@ -3,58 +3,118 @@ package com.github.wingsofovnia.keycloak.organization;
 import com.github.wingsofovnia.keycloak.organization.attribute.AttributeCheckResult;
 import com.github.wingsofovnia.keycloak.organization.attribute.Attributes;
 import com.github.wingsofovnia.keycloak.organization.attribute.rule.Rule;
+import com.github.wingsofovnia.keycloak.organization.backfill.RequiredActionBackfillTask;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreationError;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreationException;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreationLimiter;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreator;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationDomainIndex;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationDraft;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationNameIndex;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationReservations;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationSearchIndex;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationSnapshots;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationSubmissionGuard;
+import com.github.wingsofovnia.keycloak.organization.membership.OrganizationMembershipCache;
+import com.github.wingsofovnia.keycloak.organization.membership.OrganizationMembershipLookup;
+import com.github.wingsofovnia.keycloak.organization.metrics.CreateOrganizationMetrics;
+import com.github.wingsofovnia.keycloak.organization.provisioning.OrganizationProvisioner;
+import com.github.wingsofovnia.keycloak.organization.role.SkippedRoleMatcher;
+import com.github.wingsofovnia.keycloak.organization.routing.EmailDomainRouter;
+import com.github.wingsofovnia.keycloak.organization.routing.OrganizationJoinRequests;
+import com.github.wingsofovnia.keycloak.organization.util.Slugifier.Slug;
+import com.github.wingsofovnia.keycloak.organization.webhook.OrganizationWebhooks;
 import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.UriBuilder;
+import org.jboss.logging.Logger;
 import org.keycloak.Config;
 import org.keycloak.authentication.InitiatedActionSupport;
 import org.keycloak.authentication.RequiredActionContext;
 import org.keycloak.authentication.RequiredActionFactory;
 import org.keycloak.authentication.RequiredActionProvider;
-import org.keycloak.common.Profile;
 import org.keycloak.models.KeycloakSession;
 import org.keycloak.models.KeycloakSessionFactory;
-import org.keycloak.models.ModelDuplicateException;
-import org.keycloak.models.ModelValidationException;
-import org.keycloak.models.OrganizationDomainModel;
+import org.keycloak.models.ModelException;
 import org.keycloak.models.OrganizationModel;
-import org.keycloak.models.RoleModel;
 import org.keycloak.models.UserModel;
 import org.keycloak.models.utils.FormMessage;
+import org.keycloak.models.utils.KeycloakModelUtils;
+import org.keycloak.models.utils.PostMigrationEvent;
 import org.keycloak.organization.OrganizationProvider;
 import org.keycloak.provider.ProviderConfigProperty;
+import org.keycloak.services.scheduled.ClusterAwareScheduledTaskRunner;
+import org.keycloak.timer.TimerProvider;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Stream;
 
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.PROVIDER_PROPERTIES;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getDomainIdGenerator;
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getNewOrganizationQueryFlagName;
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getOrganizationAttributeRules;
-import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getSkippedRole;
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isAddAsManagedEnabled;
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isDomainGenerationEnabled;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isEmailDomainJoinPromptEnabled;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isEventTriggerModeEnabled;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isJoinRequestEnabled;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isNameTransliterationEnabled;
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isNewOrganizationQueryFlagEnabled;
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.createBlankOrganizationDomainError;
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.createBlankOrganizationNameError;
-import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.createDuplicateOrganizationNameError;
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.createForm;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.createJoinForm;
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.createInvalidOrganizationAttributesError;
-import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.createInvalidOrganizationDomainError;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.createOrganizationCreationError;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.createOrganizationCreationThrottledError;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.createUnknownJoinRequestOrganizationError;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.getJoinAccepted;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.getJoinRequestOrganizationId;
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.getOrganizationAttributes;
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.getOrganizationDomain;
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.getOrganizationName;
-import static com.github.wingsofovnia.keycloak.organization.util.Maps.multivaluedMapOf;
-import static com.github.wingsofovnia.keycloak.organization.util.Organizations.getInvitingOrganization;
-import static com.github.wingsofovnia.keycloak.organization.util.Organizations.organizationAliasOf;
-import static com.github.wingsofovnia.keycloak.organization.util.Organizations.randomDomainOf;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionForm.getSubmissionToken;
+import static com.github.wingsofovnia.keycloak.organization.routing.EmailDomainRouter.JOIN_DECLINED_NOTE;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.organizationSlugOf;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.generatedDomainOf;
 
 public class CreateOrganizationRequiredAction implements RequiredActionProvider, RequiredActionFactory {
 
     public static final String PROVIDER_ID = "create-organization-required-action";
 
+    private static final Logger LOGGER = Logger.getLogger(CreateOrganizationRequiredAction.class);
+
+    public static final String BACKFILL_INTERVAL_CONFIG = "backfill-interval";
+    public static final long BACKFILL_INTERVAL_DEFAULT_VALUE = 60; // seconds
+
+    private final CreateOrganizationMetrics metrics = new CreateOrganizationMetrics();
+    private final OrganizationMembershipCache membershipCache = new OrganizationMembershipCache();
+    private final CreateOrganizationRequiredActionTriggers triggers = new CreateOrganizationRequiredActionTriggers(
+            new OrganizationMembershipLookup(membershipCache, metrics),
+            new SkippedRoleMatcher(),
+            metrics
+    );
+
+    private final OrganizationSnapshots organizationSnapshots = new OrganizationSnapshots();
+    private final OrganizationDomainIndex organizationDomainIndex = new OrganizationDomainIndex(organizationSnapshots);
+    private final OrganizationSearchIndex organizationSearchIndex = new OrganizationSearchIndex(organizationSnapshots);
+    private final OrganizationCreator organizationCreator = new OrganizationCreator(
+            new OrganizationNameIndex(organizationSnapshots),
+            organizationDomainIndex,
+            organizationSnapshots,
+            new OrganizationReservations()
+    );
+    private final OrganizationSubmissionGuard submissionGuard = new OrganizationSubmissionGuard();
+    private final EmailDomainRouter emailDomainRouter = new EmailDomainRouter(organizationDomainIndex);
+    private final OrganizationProvisioner organizationProvisioner = new OrganizationProvisioner();
+    private final OrganizationCreationLimiter creationLimiter = new OrganizationCreationLimiter();
+
+    private long backfillIntervalMillis;
+    private OrganizationWebhooks organizationWebhooks;
+    private KeycloakSessionFactory sessionFactory;
+
     @Override
     public InitiatedActionSupport initiatedActionSupport() {
         return InitiatedActionSupport.SUPPORTED;
@@ -67,44 +127,41 @@ public class CreateOrganizationRequiredAction implements RequiredActionProvider,
             return;
         }
 
-        if (!Profile.isFeatureEnabled(Profile.Feature.ORGANIZATION)) {
-            authenticatedUser.removeRequiredAction(PROVIDER_ID);
-            return;
-        }
-
-        final OrganizationProvider organizationProvider = context.getSession()
-                .getProvider(OrganizationProvider.class);
-
-        // Invited users should not create any new org but join to the invited one.
-        if (getInvitingOrganization(context.getSession()).isPresent()) {
-            authenticatedUser.removeRequiredAction(PROVIDER_ID);
+        // The required action is managed by membership and registration events instead.
+        if (isEventTriggerModeEnabled(context.getSession())) {
             return;
         }
 
-        // Check if the user has a role which was requested to be skipped from this required action (e.g. realm admins).
-        final Optional<String> maybeSkippedRole = getSkippedRole(context.getSession());
-        if (maybeSkippedRole.isPresent()) {
-            final String skippedRole = maybeSkippedRole.get();
-            final Stream<String> authenticatedUserRoles = authenticatedUser
-                    .getRoleMappingsStream()
-                    .map(RoleModel::getName);
+        Optional<Boolean> maybeRequired = triggers.decide(context.getSession(), authenticatedUser);
 
-            if (authenticatedUserRoles.anyMatch(skippedRole::equals)) {
-                authenticatedUser.removeRequiredAction(PROVIDER_ID);
-                return;
+        // Users whose email domain belongs to an organization join it instead of being asked to create one
+        if (maybeRequired.orElse(false) && !isEmailDomainJoinPromptEnabled(context.getSession())) {
+            final Optional<OrganizationModel> maybeOrganization = emailDomainRouter.organizationOf(context.getSession(), authenticatedUser);
+            if (maybeOrganization.isPresent()) {
+                emailDomainRouter.join(context.getSession(), maybeOrganization.get(), authenticatedUser);
+                maybeRequired = Optional.of(false);
             }
         }
 
-        // If the user is a member of some other organization, skip.
-        if (organizationProvider.getByMember(authenticatedUser).findAny().isEmpty()) {
-            authenticatedUser.addRequiredAction(PROVIDER_ID);
-        } else {
-            authenticatedUser.removeRequiredAction(PROVIDER_ID);
-        }
+        maybeRequired.ifPresent(isRequired -> triggers.update(authenticatedUser, isRequired));
     }
 
     @Override
     public void requiredActionChallenge(RequiredActionContext context) {
+        // The action may have been added before the user's email domain got an organization, or by events
+        final Optional<OrganizationModel> maybeOrganization = emailDomainRouter.organizationOf(context.getSession(), context.getUser());
+        if (maybeOrganization.isPresent()) {
+            if (!isEmailDomainJoinPromptEnabled(context.getSession())) {
+                emailDomainRouter.join(context.getSession(), maybeOrganization.get(), context.getUser());
+                complete(context);
+                return;
+            }
+            if (context.getAuthenticationSession().getAuthNote(JOIN_DECLINED_NOTE) == null) {
+                context.challenge(createJoinForm(context, maybeOrganization.get()));
+                return;
+            }
+        }
+
         context.challenge(createForm(context));
     }
 
@@ -114,6 +171,49 @@ public class CreateOrganizationRequiredAction implements RequiredActionProvider,
         final MultivaluedMap<String, String> formData = context.getHttpRequest().getDecodedFormParameters();
         final OrganizationProvider organizationProvider = context.getSession().getProvider(OrganizationProvider.class);
 
+        // Answer to the offer to join the organization owning the user's email domain
+        final Optional<Boolean> maybeJoinAccepted = getJoinAccepted(formData);
+        if (maybeJoinAccepted.isPresent()) {
+            final Optional<OrganizationModel> maybeOrganization = emailDomainRouter.organizationOf(context.getSession(), user);
+            if (maybeJoinAccepted.get() && maybeOrganization.isPresent()) {
+                emailDomainRouter.join(context.getSession(), maybeOrganization.get(), user);
+                complete(context);
+            } else {
+                context.getAuthenticationSession().setAuthNote(JOIN_DECLINED_NOTE, Boolean.TRUE.toString());
+                context.challenge(createForm(context));
+            }
+            return;
+        }
+
+        // Request to join an existing organization picked from the search results
+        final Optional<String> maybeJoinRequestOrganizationId = getJoinRequestOrganizationId(formData);
+        if (maybeJoinRequestOrganizationId.isPresent()) {
+            final Optional<OrganizationModel> maybeOrganization = maybeJoinRequestOrganizationId
+                    .filter(organizationId -> !organizationId.isEmpty() && isJoinRequestEnabled(context.getSession()))
+                    .map(organizationProvider::getById)
+                    .filter(OrganizationModel::isEnabled);
+            if (maybeOrganization.isEmpty()) {
+                context.challenge(createForm(context, formData, createUnknownJoinRequestOrganizationError()));
+                return;
+            }
+            OrganizationJoinRequests.request(maybeOrganization.get(), user);
+            complete(context);
+            return;
+        }
+
+        // Serialize submits of the user and replay the outcome of the form if it has been submitted already
+        final OrganizationSubmissionGuard.Submission submission = submissionGuard.begin(
+                context.getSession(),
+                context.getAuthenticationSession(),
+                user,
+                getSubmissionToken(formData)
+        );
+        if (submission.previouslyCreatedOrganizationId().isPresent()) {
+            appendNewOrganizationFlag(context);
+            complete(context);
+            return;
+        }
+
         // Read form values
         final Optional<String> maybeOrganizationName = getOrganizationName(formData);
         if (maybeOrganizationName.isEmpty()) {
@@ -121,11 +221,12 @@ public class CreateOrganizationRequiredAction implements RequiredActionProvider,
             return;
         }
         final String organizationName = maybeOrganizationName.get();
-        final String organizationAlias = organizationAliasOf(organizationName);
+        final Slug organizationSlug = organizationSlugOf(organizationName, isNameTransliterationEnabled(context.getSession()));
 
         final String organizationDomainName;
-        if (isDomainGenerationEnabled(context.getSession())) {
-            organizationDomainName = randomDomainOf(organizationName);
+        final boolean isDomainGenerated = isDomainGenerationEnabled(context.getSession());
+        if (isDomainGenerated) {
+            organizationDomainName = generatedDomainOf(getDomainIdGenerator(context.getSession()), organizationSlug, 0);
         } else {
             final Optional<String> maybeOrganizationDomainName = getOrganizationDomain(formData);
             if (maybeOrganizationDomainName.isEmpty()) {
@@ -158,37 +259,41 @@ public class CreateOrganizationRequiredAction implements RequiredActionProvider,
             return;
         }
 
-        // Create organization
-        OrganizationModel createdOrganization;
-        try {
-            createdOrganization = organizationProvider.create(organizationName, organizationAlias);
-        } catch (ModelDuplicateException e) {
-            context.challenge(createForm(context, formData, createDuplicateOrganizationNameError()));
+        // Shed load of registration bursts before any database work
+        final Optional<Duration> maybeRetryAfter = creationLimiter.tryAdmit(context.getSession(), user);
+        if (maybeRetryAfter.isPresent()) {
+            metrics.organizationCreationThrottled();
+            context.challenge(createForm(context, formData, createOrganizationCreationThrottledError(maybeRetryAfter.get())));
             return;
         }
 
-        // Set domain
-        try {
-            createdOrganization.setDomains(Set.of(new OrganizationDomainModel(organizationDomainName)));
-        } catch (ModelValidationException e) {
-            try {
-                context.challenge(createForm(context, formData, createInvalidOrganizationDomainError()));
-                return;
-            } finally {
-                organizationProvider.remove(createdOrganization);
-            }
+        // Check everything that can be checked before writing anything
+        final OrganizationDraft organizationDraft = new OrganizationDraft(
+                organizationName,
+                organizationSlug.alias(),
+                organizationDomainName,
+                isDomainGenerated,
+                organizationAttributes
+        );
+        final Optional<OrganizationCreationError> maybeDraftError = organizationCreator.validate(context.getSession(), organizationDraft);
+        if (maybeDraftError.isPresent()) {
+            creationLimiter.release(context.getSession(), user);
+            context.challenge(createForm(context, formData, createOrganizationCreationError(maybeDraftError.get())));
+            return;
         }
 
-        // Set attributes
+        // Create organization
+        final OrganizationModel createdOrganization;
         try {
-            createdOrganization.setAttributes(multivaluedMapOf(organizationAttributes));
-        } catch (ModelValidationException e) {
-            try {
-                context.challenge(createForm(context, formData, createInvalidOrganizationAttributesError()));
-                return;
-            } finally {
-                organizationProvider.remove(createdOrganization);
+            createdOrganization = organizationCreator.create(context.getSession(), organizationDraft);
+        } catch (OrganizationCreationException e) {
+            if (e.isRollbackRequired()) {
+                // Same as for provisioning failures below: the partly created organization is never committed
+                context.getSession().getTransactionManager().setRollbackOnly();
             }
+            creationLimiter.release(context.getSession(), user);
+            context.challenge(createForm(context, formData, createOrganizationCreationError(e.error())));
+            return;
         }
 
         // Add the user to the newly created org
@@ -198,7 +303,24 @@ public class CreateOrganizationRequiredAction implements RequiredActionProvider,
             organizationProvider.addMember(createdOrganization, user);
         }
 
-        // Append new org flag to the redirect uri
+        // Provision defaults in the same transaction, so the organization is not left half set up
+        try {
+            organizationProvisioner.provision(context.getSession(), createdOrganization, user);
+        } catch (ModelException e) {
+            LOGGER.errorf(e, "Failed to provision organization %s, rolling back its creation", createdOrganization.getName());
+            context.getSession().getTransactionManager().setRollbackOnly();
+            creationLimiter.release(context.getSession(), user);
+            context.challenge(createForm(context, formData, createOrganizationCreationError(OrganizationCreationError.PROVISIONING_FAILED)));
+            return;
+        }
+        submission.recordCreatedOrganization(createdOrganization.getId());
+        organizationWebhooks.organizationCreated(context.getSession(), createdOrganization, user);
+
+        appendNewOrganizationFlag(context);
+        complete(context);
+    }
+
+    private static void appendNewOrganizationFlag(RequiredActionContext context) {
         if (isNewOrganizationQueryFlagEnabled(context.getSession())) {
             final String origRedirectUriStr = context.getAuthenticationSession().getRedirectUri();
             if (origRedirectUriStr != null && !origRedirectUriStr.isBlank()) {
@@ -206,15 +328,17 @@ public class CreateOrganizationRequiredAction implements RequiredActionProvider,
 
                 final String redirectUriWithNewOrgFlag = UriBuilder
                         .fromUri(origRedirectUriStr)
-                        .queryParam(flagName, true)
+                        .replaceQueryParam(flagName, true)
                         .build()
                         .toString();
                 context.getAuthenticationSession().setRedirectUri(redirectUriWithNewOrgFlag);
             }
         }
+    }
 
+    private static void complete(RequiredActionContext context) {
         // Drop this required action from the user
-        user.removeRequiredAction(PROVIDER_ID);
+        context.getUser().removeRequiredAction(PROVIDER_ID);
         context.getAuthenticationSession().removeRequiredAction(PROVIDER_ID);
         context.success();
     }
@@ -226,17 +350,70 @@ public class CreateOrganizationRequiredAction implements RequiredActionProvider,
 
     @Override
     public RequiredActionProvider create(KeycloakSession session) {
-        return new CreateOrganizationRequiredAction();
+        // Stateless apart from node-wide state, so sessions share the factory through a view that does not close it
+        return new SessionRequiredAction(this);
     }
 
     @Override
     public void init(Config.Scope config) {
-
+        backfillIntervalMillis = Duration
+                .ofSeconds(config.getLong(BACKFILL_INTERVAL_CONFIG, BACKFILL_INTERVAL_DEFAULT_VALUE))
+                .toMillis();
+        organizationWebhooks = OrganizationWebhooks.of(config, metrics);
     }
 
     @Override
     public void postInit(KeycloakSessionFactory factory) {
+        sessionFactory = factory;
+        metrics.register();
+        factory.register(event -> {
+            membershipCache.onEvent(event);
+            triggers.onEvent(event);
+            OrganizationJoinRequests.onEvent(event);
+            organizationSnapshots.onEvent(event);
+            creationLimiter.onEvent(event);
+
+            if (event instanceof PostMigrationEvent) {
+                scheduleBackfill(factory);
+                organizationWebhooks.start(factory);
+            }
+        });
+    }
+
+    private void scheduleBackfill(KeycloakSessionFactory factory) {
+        if (backfillIntervalMillis <= 0) {
+            return;
+        }
+
+        KeycloakModelUtils.runJobInTransaction(factory, session -> {
+            final TimerProvider timer = session.getProvider(TimerProvider.class);
+            final RequiredActionBackfillTask backfillTask = new RequiredActionBackfillTask(triggers);
+            timer.schedule(
+                    new ClusterAwareScheduledTaskRunner(factory, backfillTask, backfillIntervalMillis),
+                    backfillIntervalMillis,
+                    RequiredActionBackfillTask.TASK_NAME
+            );
+        });
+    }
+
+    public CreateOrganizationRequiredActionTriggers getTriggers() {
+        return triggers;
+    }
+
+    public OrganizationCreator getOrganizationCreator() {
+        return organizationCreator;
+    }
 
+    public OrganizationProvisioner getOrganizationProvisioner() {
+        return organizationProvisioner;
+    }
+
+    public OrganizationSearchIndex getOrganizationSearchIndex() {
+        return organizationSearchIndex;
+    }
+
+    public OrganizationWebhooks getOrganizationWebhooks() {
+        return organizationWebhooks;
     }
 
     @Override
@@ -249,8 +426,60 @@ public class CreateOrganizationRequiredAction implements RequiredActionProvider,
         return PROVIDER_PROPERTIES;
     }
 
+    /**
+     * Invoked on shutdown only, sessions close their {@link SessionRequiredAction} instead.
+     */
     @Override
     public void close() {
+        if (sessionFactory != null) {
+            cancelBackfill(sessionFactory);
+            organizationWebhooks.close(sessionFactory);
+        }
+        organizationSnapshots.close();
+        metrics.unregister();
+    }
+
+    private void cancelBackfill(KeycloakSessionFactory factory) {
+        if (backfillIntervalMillis <= 0) {
+            return;
+        }
+
+        try {
+            KeycloakModelUtils.runJobInTransaction(factory, session ->
+                    session.getProvider(TimerProvider.class).cancelTask(RequiredActionBackfillTask.TASK_NAME));
+        } catch (RuntimeException e) {
+            LOGGER.debugf(e, "Failed to cancel %s task", RequiredActionBackfillTask.TASK_NAME);
+        }
+    }
 
+    /**
+     * The provider of a session, delegating to the shared factory instance.
+     */
+    private record SessionRequiredAction(CreateOrganizationRequiredAction requiredAction) implements RequiredActionProvider {
+
+        @Override
+        public InitiatedActionSupport initiatedActionSupport() {
+            return requiredAction.initiatedActionSupport();
+        }
+
+        @Override
+        public void evaluateTriggers(RequiredActionContext context) {
+            requiredAction.evaluateTriggers(context);
+        }
+
+        @Override
+        public void requiredActionChallenge(RequiredActionContext context) {
+            requiredAction.requiredActionChallenge(context);
+        }
+
+        @Override
+        public void processAction(RequiredActionContext context) {
+            requiredAction.processAction(context);
+        }
+
+        @Override
+        public void close() {
+
+        }
     }
 }
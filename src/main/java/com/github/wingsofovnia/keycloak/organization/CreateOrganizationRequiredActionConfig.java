@@ -2,13 +2,17 @@ package com.github.wingsofovnia.keycloak.organization;
 
 import com.github.wingsofovnia.keycloak.organization.attribute.Attributes;
 import com.github.wingsofovnia.keycloak.organization.attribute.rule.Rule;
+import com.github.wingsofovnia.keycloak.organization.util.DomainIdGenerator;
+import org.keycloak.models.Constants;
 import org.keycloak.models.KeycloakSession;
 import org.keycloak.provider.ProviderConfigProperty;
 import org.keycloak.provider.ProviderConfigurationBuilder;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredAction.PROVIDER_ID;
 import static com.github.wingsofovnia.keycloak.organization.util.RequiredActions.requiredActionConfigMapValueOf;
@@ -24,6 +28,17 @@ public final class CreateOrganizationRequiredActionConfig {
     public static final String GEN_DOMAIN_KEY = "generated_domain";
     public static final boolean GEN_DOMAIN_KEY_DEFAULT_VALUE = true;
 
+    public static final String GEN_DOMAIN_ID_KEY = "generated_domain_id";
+    public static final String GEN_DOMAIN_ID_OPT_UUID = "UUID";
+    public static final String GEN_DOMAIN_ID_OPT_TIME_ORDERED = "Time-ordered";
+    public static final String GEN_DOMAIN_ID_OPT_SHORT = "Short";
+    public static final String GEN_DOMAIN_ID_OPT_ALIAS_HASH = "Alias hash";
+
+    public static final String TRANSLITERATE_NAMES_KEY = "transliterate_names";
+    public static final boolean TRANSLITERATE_NAMES_KEY_DEFAULT_VALUE = true;
+
+    public static final String PROVISIONING_TEMPLATE_KEY = "provisioning_template";
+
     public static final String REDIRECT_QUERY_FLAG_KEY = "redirect_query_flag";
     public static final boolean REDIRECT_QUERY_FLAG_KEY_DEFAULT_VALUE = true;
 
@@ -34,6 +49,56 @@ public final class CreateOrganizationRequiredActionConfig {
     public static final String ADD_AS_MANAGED_OPT_MANAGED = "Managed";
     public static final String ADD_AS_MANAGED_OPT_UNMANAGED = "Unmanaged";
 
+    public static final String ALIAS_STRATEGY_KEY = "alias_strategy";
+    public static final String ALIAS_STRATEGY_OPT_SUFFIX = "Suffix";
+    public static final String ALIAS_STRATEGY_OPT_REJECT = "Reject";
+
+    public static final String CREATION_RATE_PER_REALM_KEY = "creation_rate_per_realm";
+    public static final long CREATION_RATE_PER_REALM_DEFAULT_VALUE = 0; // per minute, unlimited
+
+    public static final String CREATION_RATE_PER_CLIENT_KEY = "creation_rate_per_client";
+    public static final long CREATION_RATE_PER_CLIENT_DEFAULT_VALUE = 0; // per minute, unlimited
+
+    public static final String DOMAIN_CONFLICT_KEY = "domain_conflict";
+    public static final String DOMAIN_CONFLICT_OPT_EXACT = "Exact";
+    public static final String DOMAIN_CONFLICT_OPT_HIERARCHICAL = "Hierarchical";
+
+    public static final String EMAIL_DOMAIN_ROUTING_KEY = "email_domain_routing";
+    public static final String EMAIL_DOMAIN_ROUTING_OPT_DISABLED = "Disabled";
+    public static final String EMAIL_DOMAIN_ROUTING_OPT_JOIN = "Join";
+    public static final String EMAIL_DOMAIN_ROUTING_OPT_PROMPT = "Prompt";
+
+    public static final String JOIN_REQUESTS_KEY = "join_requests";
+    public static final boolean JOIN_REQUESTS_KEY_DEFAULT_VALUE = false;
+
+    public static final String TRIGGER_MODE_KEY = "trigger_mode";
+    public static final String TRIGGER_MODE_OPT_LOGIN = "Login";
+    public static final String TRIGGER_MODE_OPT_EVENTS = "Events";
+
+    public static final String MEMBERSHIP_CACHE_TTL_KEY = "membership_cache_ttl";
+    public static final long MEMBERSHIP_CACHE_TTL_DEFAULT_VALUE = 300; // seconds
+
+    public static final String TRIGGER_TIME_BUDGET_KEY = "trigger_time_budget";
+    public static final long TRIGGER_TIME_BUDGET_DEFAULT_VALUE = 500; // millis
+
+    public static final String TRIGGER_FAILURE_THRESHOLD_KEY = "trigger_failure_threshold";
+    public static final int TRIGGER_FAILURE_THRESHOLD_DEFAULT_VALUE = 5;
+
+    public static final String TRIGGER_BREAKER_OPEN_DURATION_KEY = "trigger_breaker_open_duration";
+    public static final long TRIGGER_BREAKER_OPEN_DURATION_DEFAULT_VALUE = 30; // seconds
+
+    public static final String BACKFILL_KEY = "backfill";
+    public static final boolean BACKFILL_DEFAULT_VALUE = false;
+
+    public static final String BACKFILL_BATCH_SIZE_KEY = "backfill_batch_size";
+    public static final int BACKFILL_BATCH_SIZE_DEFAULT_VALUE = 500;
+
+    public static final String BACKFILL_BATCHES_PER_RUN_KEY = "backfill_batches_per_run";
+    public static final int BACKFILL_BATCHES_PER_RUN_DEFAULT_VALUE = 20;
+
+    public static final String BACKFILL_BATCH_PAUSE_KEY = "backfill_batch_pause";
+    public static final long BACKFILL_BATCH_PAUSE_DEFAULT_VALUE = 200; // millis
+
     public static final List<ProviderConfigProperty> PROVIDER_PROPERTIES = ProviderConfigurationBuilder.create()
             .property()
             .name(ATTRIBUTES_KEY)
@@ -56,9 +121,14 @@ public final class CreateOrganizationRequiredActionConfig {
             .add()
             .property()
             .name(SKIP_ROLE_KEY)
-            .label("Do not require from users with role")
-            .helpText("A role that should be skipped from requiring this action.")
-            .type(ProviderConfigProperty.ROLE_TYPE)
+            .label("Do not require from users with roles or groups")
+            .helpText("""
+                    Roles and groups that should be skipped from requiring this action.
+                    Roles are given by name (e.g. "admin" or "my-client.admin") and include composite and group-inherited roles.
+                    Groups are given by path (e.g. "/admins") and include members of their subgroups.
+                    """
+            )
+            .type(ProviderConfigProperty.MULTIVALUED_STRING_TYPE)
             .defaultValue(SKIP_ROLE_DEFAULT_VALUE)
             .add()
             .property()
@@ -69,6 +139,49 @@ public final class CreateOrganizationRequiredActionConfig {
             .defaultValue(GEN_DOMAIN_KEY_DEFAULT_VALUE)
             .add()
             .property()
+            .name(GEN_DOMAIN_ID_KEY)
+            .label("Unique part of generated domains")
+            .helpText("""
+                    Applies when domains are generated.
+                    UUID, a random UUID (36 characters).
+                    Time-ordered, the creation time followed by random characters (16 characters), generated domains sort by creation.
+                    Short, random characters (12 characters).
+                    Alias hash, a hash of the organization alias (12 characters), the same alias yields the same domain.
+                    Taken domains are generated again.
+                    """
+            )
+            .type(ProviderConfigProperty.LIST_TYPE)
+            .options(List.of(GEN_DOMAIN_ID_OPT_UUID, GEN_DOMAIN_ID_OPT_TIME_ORDERED, GEN_DOMAIN_ID_OPT_SHORT, GEN_DOMAIN_ID_OPT_ALIAS_HASH))
+            .defaultValue(GEN_DOMAIN_ID_OPT_UUID)
+            .add()
+            .property()
+            .name(TRANSLITERATE_NAMES_KEY)
+            .label("Transliterate names in aliases and generated domains")
+            .helpText("""
+                    Spells letters with diacritics, Greek and Cyrillic letters of organization names in Latin when deriving
+                    aliases and generated domains (e.g. "Caf\u00e9" becomes "cafe"). Otherwise, such letters are dropped.
+                    """
+            )
+            .type(ProviderConfigProperty.BOOLEAN_TYPE)
+            .defaultValue(TRANSLITERATE_NAMES_KEY_DEFAULT_VALUE)
+            .add()
+            .property()
+            .name(PROVISIONING_TEMPLATE_KEY)
+            .label("Provision new organizations with")
+            .helpText("""
+                    Steps applied to every created organization and its creator, in the same transaction as the organization.
+                    attribute:name=value — sets an organization attribute;
+                    group:/path — adds the user to a realm group, created with its parents if missing;
+                    role:name or role:client-id.name — grants the user a realm or client role, created if missing.
+                    Attribute values may use ${organization.id}, ${organization.name}, ${organization.alias}, ${user.id},
+                    ${user.username} and ${user.email}. Roles take no variables, group paths only ${organization.alias}
+                    below a fixed parent group, so users cannot choose names that grant them other roles or groups.
+                    Example: "group:/organizations/${organization.alias}/admins"
+                    """
+            )
+            .type(ProviderConfigProperty.MULTIVALUED_STRING_TYPE)
+            .add()
+            .property()
             .name(REDIRECT_QUERY_FLAG_KEY)
             .label("Add a query flag set to true to the redirect URI")
             .helpText("If new organization is created by this required action, adds &{flag_name}=true to the redirect URL")
@@ -94,15 +207,202 @@ public final class CreateOrganizationRequiredActionConfig {
             .options(List.of(ADD_AS_MANAGED_OPT_MANAGED, ADD_AS_MANAGED_OPT_UNMANAGED))
             .defaultValue(ADD_AS_MANAGED_OPT_MANAGED)
             .add()
+            .property()
+            .name(ALIAS_STRATEGY_KEY)
+            .label("When the organization alias is taken")
+            .helpText("""
+                    Different names may map to the same alias (e.g. "Acme!" and "ACME" both become "acme").
+                    Suffix, a short random suffix is appended to the alias (e.g. "acme_k3x9") and the organization is created.
+                    Reject, the user is asked to choose another name.
+                    A name that is itself already taken is always rejected.
+                    """
+            )
+            .type(ProviderConfigProperty.LIST_TYPE)
+            .options(List.of(ALIAS_STRATEGY_OPT_SUFFIX, ALIAS_STRATEGY_OPT_REJECT))
+            .defaultValue(ALIAS_STRATEGY_OPT_SUFFIX)
+            .add()
+            .property()
+            .name(CREATION_RATE_PER_REALM_KEY)
+            .label("Organizations created per minute in the realm")
+            .helpText("""
+                    Limits how many organizations can be created per minute in the realm, allowing bursts of as many.
+                    Submits over the limit are asked to try again shortly before anything is written. 0 is unlimited.
+                    """
+            )
+            .type(ProviderConfigProperty.STRING_TYPE)
+            .defaultValue(String.valueOf(CREATION_RATE_PER_REALM_DEFAULT_VALUE))
+            .add()
+            .property()
+            .name(CREATION_RATE_PER_CLIENT_KEY)
+            .label("Organizations created per minute by a client")
+            .helpText("""
+                    Limits how many organizations can be created per minute from a single client address and by a single user,
+                    allowing bursts of as many. 0 is unlimited.
+                    """
+            )
+            .type(ProviderConfigProperty.STRING_TYPE)
+            .defaultValue(String.valueOf(CREATION_RATE_PER_CLIENT_DEFAULT_VALUE))
+            .add()
+            .property()
+            .name(DOMAIN_CONFLICT_KEY)
+            .label("Domains conflicting with existing ones")
+            .helpText("""
+                    Applies when domains are not generated.
+                    Exact, only a domain already linked to another organization is rejected.
+                    Hierarchical, parent domains and subdomains of those are rejected too (e.g. "acme.com" and "eu.acme.com").
+                    """
+            )
+            .type(ProviderConfigProperty.LIST_TYPE)
+            .options(List.of(DOMAIN_CONFLICT_OPT_EXACT, DOMAIN_CONFLICT_OPT_HIERARCHICAL))
+            .defaultValue(DOMAIN_CONFLICT_OPT_EXACT)
+            .add()
+            .property()
+            .name(EMAIL_DOMAIN_ROUTING_KEY)
+            .label("Users whose email domain belongs to an organization")
+            .helpText("""
+                    Applies to users with a verified email only, and to organization domains marked as verified by an admin only.
+                    Disabled, the user is asked to create an organization as usual.
+                    Join, the user joins the organization owning the email domain without seeing the form.
+                    Prompt, the user is offered to join that organization or to create a new one.
+                    Joined users are added as unmanaged members.
+                    """
+            )
+            .type(ProviderConfigProperty.LIST_TYPE)
+            .options(List.of(EMAIL_DOMAIN_ROUTING_OPT_DISABLED, EMAIL_DOMAIN_ROUTING_OPT_JOIN, EMAIL_DOMAIN_ROUTING_OPT_PROMPT))
+            .defaultValue(EMAIL_DOMAIN_ROUTING_OPT_DISABLED)
+            .add()
+            .property()
+            .name(JOIN_REQUESTS_KEY)
+            .label("Allow requests to join existing organizations")
+            .helpText("""
+                    Lets users search existing organizations by name on the form and request to join one instead of creating a new one.
+                    Requests are stored in the "organizationJoinRequest" attribute of the user (organization ID) and listed for admins to review by the join-requests admin endpoint.
+                    Users with a pending request are not asked to create an organization until they are added as members or, with the Login trigger mode, until the request is declined.
+                    Organization names become searchable by prefix on a rate-limited endpoint of the realm, for users on the form only.
+                    """
+            )
+            .type(ProviderConfigProperty.BOOLEAN_TYPE)
+            .defaultValue(JOIN_REQUESTS_KEY_DEFAULT_VALUE)
+            .add()
+            .property()
+            .name(TRIGGER_MODE_KEY)
+            .label("Decide whether the action is required on")
+            .helpText("""
+                    Login, the action is re-evaluated on every login.
+                    Events, the action is added when a user registers or leaves their last organization and removed when they join one, so logins do no extra work.
+                    Events mode requires the "create-organization-required-action" event listener to be enabled in the realm settings.
+                    """
+            )
+            .type(ProviderConfigProperty.LIST_TYPE)
+            .options(List.of(TRIGGER_MODE_OPT_LOGIN, TRIGGER_MODE_OPT_EVENTS))
+            .defaultValue(TRIGGER_MODE_OPT_LOGIN)
+            .add()
+            .property()
+            .name(MEMBERSHIP_CACHE_TTL_KEY)
+            .label("Organization membership cache TTL (seconds)")
+            .helpText("""
+                    How long a user known to be an organization member is cached on a node, so that logins do not query organizations.
+                    Only members are cached and membership changes invalidate the entry, so the TTL bounds staleness of changes made on other cluster nodes.
+                    Set to 0 to disable caching.
+                    """
+            )
+            .type(ProviderConfigProperty.STRING_TYPE)
+            .defaultValue(String.valueOf(MEMBERSHIP_CACHE_TTL_DEFAULT_VALUE))
+            .add()
+            .property()
+            .name(TRIGGER_TIME_BUDGET_KEY)
+            .label("Organization membership lookup time budget (milliseconds)")
+            .helpText("""
+                    Lookups of user's organizations at login that take longer than this count as failures of the circuit breaker.
+                    Set to 0 to count only errors.
+                    """
+            )
+            .type(ProviderConfigProperty.STRING_TYPE)
+            .defaultValue(String.valueOf(TRIGGER_TIME_BUDGET_DEFAULT_VALUE))
+            .add()
+            .property()
+            .name(TRIGGER_FAILURE_THRESHOLD_KEY)
+            .label("Organization membership lookup failure threshold")
+            .helpText("""
+                    Number of consecutive failed or slow lookups of user's organizations after which lookups are skipped at login.
+                    While skipped, known members are still recognized and other users keep their current state of this required action.
+                    """
+            )
+            .type(ProviderConfigProperty.STRING_TYPE)
+            .defaultValue(String.valueOf(TRIGGER_FAILURE_THRESHOLD_DEFAULT_VALUE))
+            .add()
+            .property()
+            .name(TRIGGER_BREAKER_OPEN_DURATION_KEY)
+            .label("Skip organization membership lookups for (seconds)")
+            .helpText("How long lookups are skipped once the failure threshold is reached, before a single lookup is tried again.")
+            .type(ProviderConfigProperty.STRING_TYPE)
+            .defaultValue(String.valueOf(TRIGGER_BREAKER_OPEN_DURATION_DEFAULT_VALUE))
+            .add()
+            .property()
+            .name(BACKFILL_KEY)
+            .label("Backfill existing users in background")
+            .helpText("""
+                    Evaluates this required action for all existing users of the realm in background batches instead of lazily at their next login.
+                    Progress is stored in the realm attribute "create-organization-required-action.backfill.checkpoint", remove it to run the backfill again.
+                    Combine with the event-driven trigger mode to have logins read the backfilled state instead of evaluating users again.
+                    """
+            )
+            .type(ProviderConfigProperty.BOOLEAN_TYPE)
+            .defaultValue(BACKFILL_DEFAULT_VALUE)
+            .add()
+            .property()
+            .name(BACKFILL_BATCH_SIZE_KEY)
+            .label("Backfill batch size")
+            .helpText("Number of users evaluated in a single transaction.")
+            .type(ProviderConfigProperty.STRING_TYPE)
+            .defaultValue(String.valueOf(BACKFILL_BATCH_SIZE_DEFAULT_VALUE))
+            .add()
+            .property()
+            .name(BACKFILL_BATCHES_PER_RUN_KEY)
+            .label("Backfill batches per run")
+            .helpText("Maximum number of batches processed in the realm per scheduled run of the backfill.")
+            .type(ProviderConfigProperty.STRING_TYPE)
+            .defaultValue(String.valueOf(BACKFILL_BATCHES_PER_RUN_DEFAULT_VALUE))
+            .add()
+            .property()
+            .name(BACKFILL_BATCH_PAUSE_KEY)
+            .label("Backfill pause between batches (milliseconds)")
+            .type(ProviderConfigProperty.STRING_TYPE)
+            .defaultValue(String.valueOf(BACKFILL_BATCH_PAUSE_DEFAULT_VALUE))
+            .add()
             .build();
 
     private CreateOrganizationRequiredActionConfig() {
         throw new AssertionError();
     }
 
-    public static Optional<String> getSkippedRole(KeycloakSession session) {
+    public static List<String> getSkippedRoles(KeycloakSession session) {
         return requiredActionConfigValueOf(SKIP_ROLE_KEY, PROVIDER_ID, session)
-                .filter(role -> !role.isBlank());
+                .map(roles -> Stream.of(roles.split(Constants.CFG_DELIMITER))
+                        .map(String::trim)
+                        .filter(role -> !role.isBlank())
+                        .toList())
+                .orElse(List.of());
+    }
+
+    public static List<String> getProvisioningTemplate(KeycloakSession session) {
+        return requiredActionConfigValueOf(PROVISIONING_TEMPLATE_KEY, PROVIDER_ID, session)
+                .map(template -> Stream.of(template.split(Constants.CFG_DELIMITER))
+                        .map(String::trim)
+                        .filter(step -> !step.isBlank())
+                        .toList())
+                .orElse(List.of());
+    }
+
+    public static DomainIdGenerator getDomainIdGenerator(KeycloakSession session) {
+        return requiredActionConfigValueOf(GEN_DOMAIN_ID_KEY, PROVIDER_ID, session)
+                .map(generator -> switch (generator) {
+                    case GEN_DOMAIN_ID_OPT_TIME_ORDERED -> DomainIdGenerator.TIME_ORDERED;
+                    case GEN_DOMAIN_ID_OPT_SHORT -> DomainIdGenerator.SHORT;
+                    case GEN_DOMAIN_ID_OPT_ALIAS_HASH -> DomainIdGenerator.ALIAS_HASH;
+                    default -> DomainIdGenerator.UUID;
+                })
+                .orElse(DomainIdGenerator.UUID);
     }
 
     public static boolean isDomainGenerationEnabled(KeycloakSession session) {
@@ -128,6 +428,124 @@ public final class CreateOrganizationRequiredActionConfig {
         return addAsManagedStr.map(ADD_AS_MANAGED_OPT_MANAGED::equals).orElse(true);
     }
 
+    public static boolean isNameTransliterationEnabled(KeycloakSession session) {
+        return requiredActionConfigValueOf(TRANSLITERATE_NAMES_KEY, PROVIDER_ID, session)
+                .map(Boolean::parseBoolean)
+                .orElse(TRANSLITERATE_NAMES_KEY_DEFAULT_VALUE);
+    }
+
+    public static boolean isAliasSuffixEnabled(KeycloakSession session) {
+        return requiredActionConfigValueOf(ALIAS_STRATEGY_KEY, PROVIDER_ID, session)
+                .map(ALIAS_STRATEGY_OPT_SUFFIX::equals)
+                .orElse(true);
+    }
+
+    public static long getCreationRatePerRealm(KeycloakSession session) {
+        return requiredActionConfigValueOf(CREATION_RATE_PER_REALM_KEY, PROVIDER_ID, session)
+                .flatMap(CreateOrganizationRequiredActionConfig::parseLong)
+                .filter(rate -> rate >= 0)
+                .orElse(CREATION_RATE_PER_REALM_DEFAULT_VALUE);
+    }
+
+    public static long getCreationRatePerClient(KeycloakSession session) {
+        return requiredActionConfigValueOf(CREATION_RATE_PER_CLIENT_KEY, PROVIDER_ID, session)
+                .flatMap(CreateOrganizationRequiredActionConfig::parseLong)
+                .filter(rate -> rate >= 0)
+                .orElse(CREATION_RATE_PER_CLIENT_DEFAULT_VALUE);
+    }
+
+    public static boolean isHierarchicalDomainConflictEnabled(KeycloakSession session) {
+        return requiredActionConfigValueOf(DOMAIN_CONFLICT_KEY, PROVIDER_ID, session)
+                .map(DOMAIN_CONFLICT_OPT_HIERARCHICAL::equals)
+                .orElse(false);
+    }
+
+    public static boolean isEmailDomainRoutingEnabled(KeycloakSession session) {
+        return requiredActionConfigValueOf(EMAIL_DOMAIN_ROUTING_KEY, PROVIDER_ID, session)
+                .map(routing -> !EMAIL_DOMAIN_ROUTING_OPT_DISABLED.equals(routing))
+                .orElse(false);
+    }
+
+    public static boolean isEmailDomainJoinPromptEnabled(KeycloakSession session) {
+        return requiredActionConfigValueOf(EMAIL_DOMAIN_ROUTING_KEY, PROVIDER_ID, session)
+                .map(EMAIL_DOMAIN_ROUTING_OPT_PROMPT::equals)
+                .orElse(false);
+    }
+
+    public static boolean isJoinRequestEnabled(KeycloakSession session) {
+        return requiredActionConfigValueOf(JOIN_REQUESTS_KEY, PROVIDER_ID, session)
+                .map(Boolean::parseBoolean)
+                .orElse(JOIN_REQUESTS_KEY_DEFAULT_VALUE);
+    }
+
+    public static boolean isEventTriggerModeEnabled(KeycloakSession session) {
+        return requiredActionConfigValueOf(TRIGGER_MODE_KEY, PROVIDER_ID, session)
+                .map(TRIGGER_MODE_OPT_EVENTS::equals)
+                .orElse(false);
+    }
+
+    public static Duration getMembershipCacheTtl(KeycloakSession session) {
+        final long ttlSeconds = requiredActionConfigValueOf(MEMBERSHIP_CACHE_TTL_KEY, PROVIDER_ID, session)
+                .flatMap(CreateOrganizationRequiredActionConfig::parseLong)
+                .filter(ttl -> ttl >= 0)
+                .orElse(MEMBERSHIP_CACHE_TTL_DEFAULT_VALUE);
+        return Duration.ofSeconds(ttlSeconds);
+    }
+
+    public static Duration getTriggerTimeBudget(KeycloakSession session) {
+        final long budgetMillis = requiredActionConfigValueOf(TRIGGER_TIME_BUDGET_KEY, PROVIDER_ID, session)
+                .flatMap(CreateOrganizationRequiredActionConfig::parseLong)
+                .filter(budget -> budget >= 0)
+                .orElse(TRIGGER_TIME_BUDGET_DEFAULT_VALUE);
+        return Duration.ofMillis(budgetMillis);
+    }
+
+    public static int getTriggerFailureThreshold(KeycloakSession session) {
+        return requiredActionConfigValueOf(TRIGGER_FAILURE_THRESHOLD_KEY, PROVIDER_ID, session)
+                .flatMap(CreateOrganizationRequiredActionConfig::parseLong)
+                .filter(threshold -> threshold > 0 && threshold <= Integer.MAX_VALUE)
+                .map(Long::intValue)
+                .orElse(TRIGGER_FAILURE_THRESHOLD_DEFAULT_VALUE);
+    }
+
+    public static Duration getTriggerBreakerOpenDuration(KeycloakSession session) {
+        final long openDurationSeconds = requiredActionConfigValueOf(TRIGGER_BREAKER_OPEN_DURATION_KEY, PROVIDER_ID, session)
+                .flatMap(CreateOrganizationRequiredActionConfig::parseLong)
+                .filter(duration -> duration >= 0)
+                .orElse(TRIGGER_BREAKER_OPEN_DURATION_DEFAULT_VALUE);
+        return Duration.ofSeconds(openDurationSeconds);
+    }
+
+    public static boolean isBackfillEnabled(KeycloakSession session) {
+        return requiredActionConfigValueOf(BACKFILL_KEY, PROVIDER_ID, session)
+                .map(Boolean::parseBoolean)
+                .orElse(BACKFILL_DEFAULT_VALUE);
+    }
+
+    public static int getBackfillBatchSize(KeycloakSession session) {
+        return requiredActionConfigValueOf(BACKFILL_BATCH_SIZE_KEY, PROVIDER_ID, session)
+                .flatMap(CreateOrganizationRequiredActionConfig::parseLong)
+                .filter(size -> size > 0 && size <= Integer.MAX_VALUE)
+                .map(Long::intValue)
+                .orElse(BACKFILL_BATCH_SIZE_DEFAULT_VALUE);
+    }
+
+    public static int getBackfillBatchesPerRun(KeycloakSession session) {
+        return requiredActionConfigValueOf(BACKFILL_BATCHES_PER_RUN_KEY, PROVIDER_ID, session)
+                .flatMap(CreateOrganizationRequiredActionConfig::parseLong)
+                .filter(batches -> batches > 0 && batches <= Integer.MAX_VALUE)
+                .map(Long::intValue)
+                .orElse(BACKFILL_BATCHES_PER_RUN_DEFAULT_VALUE);
+    }
+
+    public static Duration getBackfillBatchPause(KeycloakSession session) {
+        final long pauseMillis = requiredActionConfigValueOf(BACKFILL_BATCH_PAUSE_KEY, PROVIDER_ID, session)
+                .flatMap(CreateOrganizationRequiredActionConfig::parseLong)
+                .filter(pause -> pause >= 0)
+                .orElse(BACKFILL_BATCH_PAUSE_DEFAULT_VALUE);
+        return Duration.ofMillis(pauseMillis);
+    }
+
     public static Optional<List<Rule>> getOrganizationAttributeRules(String attrName, KeycloakSession session) {
         return requiredActionConfigMapValueOf(ATTRIBUTES_KEY, PROVIDER_ID, session)
                 .map(allAttrRules -> allAttrRules.get(attrName))
@@ -137,4 +555,12 @@ public final class CreateOrganizationRequiredActionConfig {
     public static Map<String, String> getOrganizationAttributeDefs(KeycloakSession session) {
         return requiredActionConfigMapValueOf(ATTRIBUTES_KEY, PROVIDER_ID, session).orElse(Map.of());
     }
+
+    private static Optional<Long> parseLong(String value) {
+        try {
+            return Optional.of(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
 }
@@ -0,0 +1,60 @@
+package com.github.wingsofovnia.keycloak.organization;
+
+import org.keycloak.events.Event;
+import org.keycloak.events.EventListenerProvider;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.AdminEvent;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.UserModel;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isEventTriggerModeEnabled;
+
+/**
+ * Adds this required action to newly registered users when event-driven mode is enabled,
+ * so that it does not have to be evaluated on every login.
+ */
+public class CreateOrganizationRequiredActionEventListener implements EventListenerProvider {
+
+    private final KeycloakSession session;
+    private final CreateOrganizationRequiredActionTriggers triggers;
+
+    public CreateOrganizationRequiredActionEventListener(
+            KeycloakSession session,
+            CreateOrganizationRequiredActionTriggers triggers
+    ) {
+        this.session = session;
+        this.triggers = triggers;
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        if (event.getType() != EventType.REGISTER || event.getUserId() == null) {
+            return;
+        }
+
+        final RealmModel realm = session.getContext().getRealm();
+        if (realm == null || !realm.getId().equals(event.getRealmId())) {
+            return;
+        }
+
+        if (!isEventTriggerModeEnabled(session)) {
+            return;
+        }
+
+        final UserModel user = session.users().getUserById(realm, event.getUserId());
+        if (user != null) {
+            triggers.apply(session, user);
+        }
+    }
+
+    @Override
+    public void onEvent(AdminEvent event, boolean includeRepresentation) {
+
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.wingsofovnia.keycloak.organization;
+
+import org.keycloak.Config;
+import org.keycloak.authentication.RequiredActionProvider;
+import org.keycloak.events.EventListenerProvider;
+import org.keycloak.events.EventListenerProviderFactory;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredAction.PROVIDER_ID;
+
+public class CreateOrganizationRequiredActionEventListenerFactory implements EventListenerProviderFactory {
+
+    public static final String LISTENER_ID = "create-organization-required-action";
+
+    private CreateOrganizationRequiredActionTriggers triggers;
+
+    @Override
+    public EventListenerProvider create(KeycloakSession session) {
+        return new CreateOrganizationRequiredActionEventListener(session, triggers);
+    }
+
+    @Override
+    public void init(Config.Scope config) {
+
+    }
+
+    @Override
+    public void postInit(KeycloakSessionFactory factory) {
+        final CreateOrganizationRequiredAction requiredActionFactory = (CreateOrganizationRequiredAction) factory
+                .getProviderFactory(RequiredActionProvider.class, PROVIDER_ID);
+        this.triggers = requiredActionFactory.getTriggers();
+    }
+
+    @Override
+    public void close() {
+
+    }
+
+    @Override
+    public String getId() {
+        return LISTENER_ID;
+    }
+}
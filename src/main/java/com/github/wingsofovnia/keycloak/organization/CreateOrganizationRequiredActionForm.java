@@ -10,15 +10,19 @@ import com.github.wingsofovnia.keycloak.organization.attribute.rule.RequiredRule
 import com.github.wingsofovnia.keycloak.organization.attribute.rule.Rule;
 import com.github.wingsofovnia.keycloak.organization.attribute.rule.RuleWithExpectation;
 import com.github.wingsofovnia.keycloak.organization.attribute.rule.TypeRule;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreationError;
 import com.github.wingsofovnia.keycloak.organization.util.Messages;
+import com.github.wingsofovnia.keycloak.organization.util.OrganizationNames;
 import jakarta.annotation.Nonnull;
 import jakarta.ws.rs.core.MultivaluedHashMap;
 import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
 import org.keycloak.authentication.RequiredActionContext;
 import org.keycloak.forms.login.LoginFormsProvider;
+import org.keycloak.models.OrganizationModel;
 import org.keycloak.models.utils.FormMessage;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +31,10 @@ import java.util.stream.Collectors;
 
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getOrganizationAttributeDefs;
 import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isDomainGenerationEnabled;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isJoinRequestEnabled;
+import static com.github.wingsofovnia.keycloak.organization.creation.OrganizationSubmissionGuard.issueSubmissionToken;
+import static com.github.wingsofovnia.keycloak.organization.realm.CreateOrganizationRealmResource.nameAvailableUrlOf;
+import static com.github.wingsofovnia.keycloak.organization.realm.CreateOrganizationRealmResource.searchUrlOf;
 import static com.github.wingsofovnia.keycloak.organization.util.Maps.singleValueMapOf;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toMap;
@@ -36,17 +44,21 @@ public final class CreateOrganizationRequiredActionForm {
     private static final String ORGANIZATION_NAME_FIELD = "orgName";
     private static final String ORGANIZATION_DOMAIN_FIELD = "orgDomain";
     private static final String ORGANIZATION_ATTR_FIELD_PREFIX = "orgAttr_";
+    private static final String SUBMISSION_TOKEN_FIELD = "submissionToken";
+    private static final String JOIN_FIELD = "join";
+    private static final String JOIN_REQUEST_FIELD = "joinRequest";
 
     private CreateOrganizationRequiredActionForm() {
         throw new AssertionError();
     }
 
+    /**
+     * @return the {@linkplain OrganizationNames#normalizedNameOf normalized} organization name, empty if blank
+     */
     public static Optional<String> getOrganizationName(MultivaluedMap<String, String> formData) {
-        final String nameFieldValue = formData.getFirst(ORGANIZATION_NAME_FIELD);
-        if (nameFieldValue == null || nameFieldValue.isBlank()) {
-            return Optional.ofNullable(nameFieldValue);
-        }
-        return Optional.of(nameFieldValue.trim());
+        return Optional.ofNullable(formData.getFirst(ORGANIZATION_NAME_FIELD))
+                .map(OrganizationNames::normalizedNameOf)
+                .filter(name -> !name.isEmpty());
     }
 
     public static Optional<String> getOrganizationDomain(MultivaluedMap<String, String> formData) {
@@ -57,6 +69,24 @@ public final class CreateOrganizationRequiredActionForm {
         return Optional.of(domainFieldValue.trim());
     }
 
+    public static String getSubmissionToken(MultivaluedMap<String, String> formData) {
+        return formData.getFirst(SUBMISSION_TOKEN_FIELD);
+    }
+
+    /**
+     * @return whether the user accepted or declined to join the organization of their email domain, if they were asked
+     */
+    public static Optional<Boolean> getJoinAccepted(MultivaluedMap<String, String> formData) {
+        return Optional.ofNullable(formData.getFirst(JOIN_FIELD)).map(Boolean::parseBoolean);
+    }
+
+    /**
+     * @return the ID of the organization the user requested to join (blank if none was picked), if they submitted a request
+     */
+    public static Optional<String> getJoinRequestOrganizationId(MultivaluedMap<String, String> formData) {
+        return Optional.ofNullable(formData.getFirst(JOIN_REQUEST_FIELD)).map(String::trim);
+    }
+
     public static Map<String, String> getOrganizationAttributes(MultivaluedMap<String, String> formData) {
         final Map<String, String> attributeFieldValues = new HashMap<>();
         singleValueMapOf(formData).forEach((attrFieldName, attrValue) -> {
@@ -84,6 +114,37 @@ public final class CreateOrganizationRequiredActionForm {
         return new FormMessage(ORGANIZATION_DOMAIN_FIELD, Messages.ORGANIZATION_DOMAIN_IS_INVALID);
     }
 
+    public static FormMessage createDuplicateOrganizationDomainError() {
+        return new FormMessage(ORGANIZATION_DOMAIN_FIELD, Messages.ORGANIZATION_DOMAIN_EXISTS);
+    }
+
+    public static FormMessage createConflictingOrganizationDomainError() {
+        return new FormMessage(ORGANIZATION_DOMAIN_FIELD, Messages.ORGANIZATION_DOMAIN_CONFLICTS);
+    }
+
+    public static FormMessage createUnknownJoinRequestOrganizationError() {
+        return new FormMessage(JOIN_REQUEST_FIELD, Messages.ORGANIZATION_JOIN_REQUEST_UNKNOWN);
+    }
+
+    public static FormMessage createOrganizationProvisioningError() {
+        return new FormMessage(Messages.ORGANIZATION_PROVISIONING_FAILED);
+    }
+
+    public static FormMessage createOrganizationCreationThrottledError(Duration retryAfter) {
+        return new FormMessage(null, Messages.ORGANIZATION_CREATION_THROTTLED, Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+
+    public static FormMessage createOrganizationCreationError(OrganizationCreationError error) {
+        return switch (error) {
+            case DUPLICATE_NAME -> createDuplicateOrganizationNameError();
+            case INVALID_DOMAIN -> createInvalidOrganizationDomainError();
+            case DUPLICATE_DOMAIN -> createDuplicateOrganizationDomainError();
+            case CONFLICTING_DOMAIN -> createConflictingOrganizationDomainError();
+            case INVALID_ATTRIBUTES -> createInvalidOrganizationAttributesError();
+            case PROVISIONING_FAILED -> createOrganizationProvisioningError();
+        };
+    }
+
     public static FormMessage createInvalidOrganizationAttributesError() {
         return new FormMessage(Messages.ORGANIZATION_ATTRIBUTES_ARE_INVALID);
     }
@@ -114,6 +175,10 @@ public final class CreateOrganizationRequiredActionForm {
     ) {
         final LoginFormsProvider loginFormsProvider = context.form()
                 .setAttribute("isDomainGenerationEnabled", isDomainGenerationEnabled(context.getSession()))
+                .setAttribute("nameAvailableUrl", nameAvailableUrlOf(context.getSession(), context.getAuthenticationSession()))
+                .setAttribute("isJoinRequestEnabled", isJoinRequestEnabled(context.getSession()))
+                .setAttribute("organizationSearchUrl", searchUrlOf(context.getSession(), context.getAuthenticationSession()))
+                .setAttribute(SUBMISSION_TOKEN_FIELD, issueSubmissionToken(context.getAuthenticationSession()))
                 .setAttribute("formData", formData.entrySet().stream()
                         .filter(entry -> !entry.getValue().isEmpty())
                         .collect(toMap(Map.Entry::getKey, entry -> entry.getValue().get(0))));
@@ -149,6 +214,12 @@ public final class CreateOrganizationRequiredActionForm {
         return createForm(context, new MultivaluedHashMap<>(), List.of());
     }
 
+    public static Response createJoinForm(RequiredActionContext context, OrganizationModel organization) {
+        return context.form()
+                .setAttribute("organizationName", organization.getName())
+                .createForm("join_organization.ftl");
+    }
+
     private static Map<String, String> fieldValidationAttributesOf(List<Rule> rules) {
         final String attrFieldType = rules.stream()
                 .filter(rule -> rule instanceof TypeRule)
@@ -0,0 +1,180 @@
+package com.github.wingsofovnia.keycloak.organization;
+
+import com.github.wingsofovnia.keycloak.organization.membership.OrganizationMembershipLookup;
+import com.github.wingsofovnia.keycloak.organization.membership.OrganizationMemberships;
+import com.github.wingsofovnia.keycloak.organization.metrics.CreateOrganizationMetrics;
+import com.github.wingsofovnia.keycloak.organization.role.SkippedRoleMatcher;
+import com.github.wingsofovnia.keycloak.organization.routing.OrganizationJoinRequests;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.keycloak.common.Profile;
+import org.keycloak.connections.jpa.JpaConnectionProvider;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.organization.OrganizationProvider;
+import org.keycloak.provider.ProviderEvent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredAction.PROVIDER_ID;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isEventTriggerModeEnabled;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isJoinRequestEnabled;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.isInvited;
+
+/**
+ * Decides whether a user has to go through this required action and adds or removes it accordingly.
+ * <p>
+ * The decision is shared by per-login evaluation ({@link CreateOrganizationRequiredAction#evaluateTriggers})
+ * and event-driven evaluation ({@link CreateOrganizationRequiredActionEventListener} and membership events).
+ * All methods expect the realm to be set in the session context.
+ */
+public final class CreateOrganizationRequiredActionTriggers {
+
+    private final OrganizationMembershipLookup membershipLookup;
+    private final SkippedRoleMatcher skippedRoleMatcher;
+    private final CreateOrganizationMetrics metrics;
+
+    public CreateOrganizationRequiredActionTriggers(
+            @Nonnull OrganizationMembershipLookup membershipLookup,
+            @Nonnull SkippedRoleMatcher skippedRoleMatcher,
+            @Nonnull CreateOrganizationMetrics metrics
+    ) {
+        this.membershipLookup = membershipLookup;
+        this.skippedRoleMatcher = skippedRoleMatcher;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return whether the user has to go through this required action, or empty if it cannot be decided at the
+     * moment (e.g. organization lookups are temporarily skipped) and the user's current state should be kept
+     */
+    public Optional<Boolean> decide(@Nonnull KeycloakSession session, @Nonnull UserModel user) {
+        return decide(session, user, null);
+    }
+
+    /**
+     * Decides for a page of users who are not logging in, e.g. by
+     * {@link com.github.wingsofovnia.keycloak.organization.backfill.RequiredActionBackfillTask}. Memberships of
+     * the whole page are read with a single query, and the per-login caches and circuit breaker are bypassed, so
+     * these users neither evict cached logins nor trip the breaker for them; failures are thrown instead.
+     *
+     * @return whether each of the users has to go through this required action, by user ID
+     */
+    public Map<String, Boolean> decideAll(@Nonnull KeycloakSession session, @Nonnull List<UserModel> users) {
+        final Map<String, Boolean> decisions = new HashMap<>();
+        if (!Profile.isFeatureEnabled(Profile.Feature.ORGANIZATION)) {
+            users.forEach(user -> decisions.put(user.getId(), false));
+            return decisions;
+        }
+
+        final Set<String> members = membersAmong(session, users);
+        final boolean isJoinRequestEnabled = isJoinRequestEnabled(session);
+        for (UserModel user : users) {
+            final boolean isRequired = !members.contains(user.getId())
+                    && !skippedRoleMatcher.isSkippedUncached(session, user)
+                    && !(isJoinRequestEnabled && OrganizationJoinRequests.isPending(session, user));
+            decisions.put(user.getId(), isRequired);
+        }
+        return decisions;
+    }
+
+    public void apply(@Nonnull KeycloakSession session, @Nonnull UserModel user) {
+        decide(session, user).ifPresent(isRequired -> update(user, isRequired));
+    }
+
+    /**
+     * Adds or removes the required action when membership changes, if event-driven mode is enabled in the realm.
+     * Intended to be registered with {@link org.keycloak.models.KeycloakSessionFactory#register}.
+     */
+    public void onEvent(ProviderEvent event) {
+        if (event instanceof RealmModel.RealmRemovedEvent realmRemovedEvent) {
+            skippedRoleMatcher.invalidateRealm(realmRemovedEvent.getRealm().getId());
+            membershipLookup.invalidateRealm(realmRemovedEvent.getRealm().getId());
+        } else if (event instanceof OrganizationModel.OrganizationMemberJoinEvent joinEvent) {
+            if (isEventTriggerModeEnabled(joinEvent.getSession())) {
+                update(joinEvent.getUser(), false);
+            }
+        } else if (event instanceof OrganizationModel.OrganizationMemberLeaveEvent leaveEvent) {
+            if (isEventTriggerModeEnabled(leaveEvent.getSession())) {
+                final UserModel user = leaveEvent.getUser();
+                decide(leaveEvent.getSession(), user, leaveEvent.getOrganization())
+                        .filter(isRequired -> isRequired)
+                        .ifPresent(isRequired -> update(user, true));
+            }
+        }
+    }
+
+    /**
+     * Adds or removes the required action only if it differs from the user's current state, as every
+     * modification of a JPA-backed user dirties the entity and invalidates it in the cluster-wide user cache.
+     */
+    public void update(@Nonnull UserModel user, boolean isRequired) {
+        final boolean hasRequiredAction = user.getRequiredActionsStream().anyMatch(PROVIDER_ID::equals);
+        if (hasRequiredAction == isRequired) {
+            metrics.requiredActionWriteAvoided();
+            return;
+        }
+
+        if (isRequired) {
+            user.addRequiredAction(PROVIDER_ID);
+        } else {
+            user.removeRequiredAction(PROVIDER_ID);
+        }
+        metrics.requiredActionWritten();
+    }
+
+    private static Set<String> membersAmong(KeycloakSession session, List<UserModel> users) {
+        final JpaConnectionProvider jpaConnectionProvider = session.getProvider(JpaConnectionProvider.class);
+        if (jpaConnectionProvider == null) {
+            final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
+            return users.stream()
+                    .filter(user -> organizationProvider.getByMember(user).findAny().isPresent())
+                    .map(UserModel::getId)
+                    .collect(Collectors.toSet());
+        }
+
+        final List<String> userIds = users.stream().map(UserModel::getId).toList();
+        return OrganizationMemberships.membersAmong(jpaConnectionProvider.getEntityManager(),
+                session.getContext().getRealm().getId(), userIds);
+    }
+
+    private Optional<Boolean> decide(KeycloakSession session, UserModel user, @Nullable OrganizationModel leavingOrganization) {
+        if (!Profile.isFeatureEnabled(Profile.Feature.ORGANIZATION)) {
+            return Optional.of(false);
+        }
+
+        // Invited users should not create any new org but join to the invited one.
+        if (isInvited(session)) {
+            return Optional.of(false);
+        }
+
+        // Check if the user has a role or a group which was requested to be skipped from this required action (e.g. realm admins).
+        if (skippedRoleMatcher.isSkipped(session, user)) {
+            return Optional.of(false);
+        }
+
+        // If the user is a member of some other organization, skip.
+        final Optional<Boolean> maybeRequired;
+        if (leavingOrganization == null) {
+            maybeRequired = membershipLookup.hasOrganization(session, user).map(hasOrganization -> !hasOrganization);
+        } else {
+            // The membership may not have been removed yet when the leave event fires, so look past the leaving one.
+            final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
+            maybeRequired = Optional.of(organizationProvider.getByMember(user)
+                    .filter(organization -> !organization.getId().equals(leavingOrganization.getId()))
+                    .findAny()
+                    .isEmpty());
+        }
+
+        // Users waiting for admins to accept their request to join an organization are not asked to create one meanwhile.
+        return maybeRequired.map(isRequired -> isRequired
+                && !(isJoinRequestEnabled(session) && OrganizationJoinRequests.isPending(session, user)));
+    }
+}
@@ -0,0 +1,306 @@
+package com.github.wingsofovnia.keycloak.organization.admin;
+
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreator;
+import com.github.wingsofovnia.keycloak.organization.provisioning.OrganizationProvisioner;
+import com.github.wingsofovnia.keycloak.organization.routing.OrganizationJoinRequests;
+import com.github.wingsofovnia.keycloak.organization.webhook.OrganizationWebhooks;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.keycloak.connections.jpa.JpaConnectionProvider;
+import org.keycloak.events.EventType;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.models.utils.KeycloakModelUtils;
+import org.keycloak.organization.OrganizationProvider;
+import org.keycloak.services.resources.admin.permissions.AdminPermissionEvaluator;
+import org.keycloak.util.JsonSerialization;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredAction.PROVIDER_ID;
+
+/**
+ * Admin endpoints of this extension, available under {@code /admin/realms/{realm}/create-organization}.
+ */
+public class CreateOrganizationAdminResource {
+
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+
+    private static final int PAGE_SIZE = 500;
+    private static final int JOIN_REQUESTS_MAX_RESULTS = 1_000;
+
+    private final KeycloakSession session;
+    private final RealmModel realm;
+    private final AdminPermissionEvaluator auth;
+    private final OrganizationCreator organizationCreator;
+    private final OrganizationProvisioner organizationProvisioner;
+    private final OrganizationWebhooks organizationWebhooks;
+
+    public CreateOrganizationAdminResource(
+            KeycloakSession session,
+            RealmModel realm,
+            AdminPermissionEvaluator auth,
+            OrganizationCreator organizationCreator,
+            OrganizationProvisioner organizationProvisioner,
+            OrganizationWebhooks organizationWebhooks
+    ) {
+        this.session = session;
+        this.realm = realm;
+        this.auth = auth;
+        this.organizationCreator = organizationCreator;
+        this.organizationProvisioner = organizationProvisioner;
+        this.organizationWebhooks = organizationWebhooks;
+    }
+
+    /**
+     * Streams users that have this required action pending with their ID, creation time and last login
+     * (if login events are stored). Users are read page by page in separate transactions, so memory use does
+     * not depend on the number of users in the realm.
+     *
+     * @param format {@code ndjson} (default) or {@code csv}
+     */
+    @GET
+    @Path("pending-users")
+    public Response getPendingUsers(@QueryParam("format") String format) {
+        auth.users().requireView();
+
+        final boolean isCsv = FORMAT_CSV.equalsIgnoreCase(format);
+        if (format != null && !isCsv && !FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            throw new BadRequestException("Unsupported format '" + format + "', expected ndjson or csv");
+        }
+
+        final KeycloakSessionFactory sessionFactory = session.getKeycloakSessionFactory();
+        final String realmId = realm.getId();
+        final StreamingOutput output = outputStream -> {
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (isCsv) {
+                writer.write("id,createdTimestamp,lastLogin\n");
+            }
+
+            String lastUserId = "";
+            while (lastUserId != null) {
+                final String pageLastUserId = lastUserId;
+                final PendingUsersPage page = KeycloakModelUtils.runJobInTransactionWithResult(sessionFactory,
+                        pageSession -> pendingUsersPage(pageSession, realmId, pageLastUserId));
+                for (PendingUser pendingUser : page.pendingUsers()) {
+                    writer.write(isCsv ? pendingUser.toCsv() : pendingUser.toJson());
+                    writer.write('\n');
+                }
+                writer.flush();
+
+                lastUserId = page.lastUserId();
+            }
+            writer.flush();
+        };
+
+        return Response.ok(output, isCsv ? CSV_MEDIA_TYPE : NDJSON_MEDIA_TYPE)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"pending-users." + (isCsv ? FORMAT_CSV : FORMAT_NDJSON) + "\"")
+                .build();
+    }
+
+    /**
+     * Creates organizations with their owners from an NDJSON body, one record per line, and streams back the result
+     * of each record as NDJSON. See {@link OrganizationImporter} for the record format.
+     *
+     * @param batchSize number of records created per transaction, {@value OrganizationImporter#DEFAULT_BATCH_SIZE}
+     *                  by default and at most {@value OrganizationImporter#MAX_BATCH_SIZE}
+     */
+    @POST
+    @Path("organizations/import")
+    @Consumes({NDJSON_MEDIA_TYPE, MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN})
+    @Produces(NDJSON_MEDIA_TYPE)
+    public Response importOrganizations(@QueryParam("batchSize") Integer batchSize, InputStream body) {
+        auth.realm().requireManageRealm();
+
+        if (!realm.isOrganizationsEnabled()) {
+            throw new BadRequestException("Organizations are not enabled in realm " + realm.getName());
+        }
+        final int importBatchSize = Optional.ofNullable(batchSize).orElse(OrganizationImporter.DEFAULT_BATCH_SIZE);
+        if (importBatchSize < 1 || importBatchSize > OrganizationImporter.MAX_BATCH_SIZE) {
+            throw new BadRequestException("batchSize must be between 1 and " + OrganizationImporter.MAX_BATCH_SIZE);
+        }
+
+        final OrganizationImporter importer = new OrganizationImporter(session.getKeycloakSessionFactory(), realm.getId(),
+                organizationCreator, organizationProvisioner, organizationWebhooks,
+                auth.adminAuth(), session.getContext().getConnection(), importBatchSize);
+        final StreamingOutput output = outputStream -> importer.importFrom(body, outputStream);
+        return Response.ok(output, NDJSON_MEDIA_TYPE).build();
+    }
+
+    /**
+     * Lists users with a request to join the organization, see {@link OrganizationJoinRequests}.
+     */
+    @GET
+    @Path("organizations/{organizationId}/join-requests")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<Map<String, Object>> getJoinRequests(
+            @PathParam("organizationId") String organizationId,
+            @QueryParam("first") @DefaultValue("0") int first,
+            @QueryParam("max") @DefaultValue("100") int max
+    ) {
+        auth.users().requireView();
+
+        if (first < 0 || max < 1 || max > JOIN_REQUESTS_MAX_RESULTS) {
+            throw new BadRequestException("first must not be negative and max must be between 1 and " + JOIN_REQUESTS_MAX_RESULTS);
+        }
+        return OrganizationJoinRequests.requestersOf(session, realm, organizationOf(organizationId), first, max)
+                .map(user -> {
+                    final Map<String, Object> json = new LinkedHashMap<>();
+                    json.put("id", user.getId());
+                    json.put("username", user.getUsername());
+                    json.put("email", user.getEmail());
+                    return json;
+                })
+                .toList();
+    }
+
+    /**
+     * Declines the request of the user to join the organization.
+     */
+    @DELETE
+    @Path("organizations/{organizationId}/join-requests/{userId}")
+    public Response declineJoinRequest(@PathParam("organizationId") String organizationId, @PathParam("userId") String userId) {
+        // Authorized before any lookup, so that admins without access cannot probe which organizations and users exist
+        auth.users().requireView();
+
+        final OrganizationModel organization = organizationOf(organizationId);
+        final UserModel user = session.users().getUserById(realm, userId);
+        if (user == null) {
+            throw new NotFoundException("Join request not found");
+        }
+        auth.users().requireManage(user);
+        if (!organization.getId().equals(user.getFirstAttribute(OrganizationJoinRequests.USER_ATTRIBUTE))) {
+            throw new NotFoundException("Join request not found");
+        }
+
+        OrganizationJoinRequests.withdraw(user);
+        return Response.noContent().build();
+    }
+
+    private OrganizationModel organizationOf(String organizationId) {
+        final OrganizationModel organization = realm.isOrganizationsEnabled()
+                ? session.getProvider(OrganizationProvider.class).getById(organizationId)
+                : null;
+        if (organization == null) {
+            throw new NotFoundException("Organization not found");
+        }
+        return organization;
+    }
+
+    /**
+     * Reads the users with this required action after the given user ID straight from the required action table,
+     * paged by user ID so that every page costs the same, and their last logins with one query per page.
+     */
+    private static PendingUsersPage pendingUsersPage(KeycloakSession session, String realmId, String lastUserId) {
+        final RealmModel realm = session.realms().getRealm(realmId);
+        if (realm == null) {
+            return new PendingUsersPage(List.of(), null);
+        }
+
+        final EntityManager entityManager = session.getProvider(JpaConnectionProvider.class).getEntityManager();
+        final List<Object[]> users = entityManager
+                .createQuery("""
+                        select u.id, u.createdTimestamp from UserRequiredActionEntity a join a.user u
+                        where u.realmId = :realmId and a.action = :action and u.serviceAccountClientLink is null
+                          and u.id > :lastUserId
+                        order by u.id
+                        """, Object[].class)
+                .setParameter("realmId", realmId)
+                .setParameter("action", PROVIDER_ID)
+                .setParameter("lastUserId", lastUserId)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+        if (users.isEmpty()) {
+            return new PendingUsersPage(List.of(), null);
+        }
+
+        final List<String> userIds = users.stream().map(user -> (String) user[0]).toList();
+        final Map<String, Long> lastLogins = lastLoginsOf(entityManager, realm, userIds);
+        final List<PendingUser> pendingUsers = users.stream()
+                .map(user -> new PendingUser((String) user[0], (Long) user[1], lastLogins.get((String) user[0])))
+                .toList();
+        return new PendingUsersPage(pendingUsers, users.size() == PAGE_SIZE ? userIds.get(userIds.size() - 1) : null);
+    }
+
+    private static Map<String, Long> lastLoginsOf(EntityManager entityManager, RealmModel realm, List<String> userIds) {
+        if (!realm.isEventsEnabled()) {
+            return Map.of();
+        }
+
+        final Map<String, Long> lastLogins = new HashMap<>();
+        entityManager
+                .createQuery("""
+                        select e.userId, max(e.time) from EventEntity e
+                        where e.realmId = :realmId and e.type = :type and e.userId in :userIds
+                        group by e.userId
+                        """, Object[].class)
+                .setParameter("realmId", realm.getId())
+                .setParameter("type", EventType.LOGIN.name())
+                .setParameter("userIds", userIds)
+                .getResultList()
+                .forEach(row -> lastLogins.put((String) row[0], (Long) row[1]));
+        return lastLogins;
+    }
+
+    /**
+     * @param lastUserId the user ID to continue after, {@code null} if there are no more pages
+     */
+    private record PendingUsersPage(List<PendingUser> pendingUsers, String lastUserId) {
+    }
+
+    private record PendingUser(String id, Long createdTimestamp, Long lastLogin) {
+
+        String toJson() {
+            final Map<String, Object> json = new LinkedHashMap<>();
+            json.put("id", id);
+            json.put("createdTimestamp", isoOf(createdTimestamp));
+            json.put("lastLogin", isoOf(lastLogin));
+            try {
+                return JsonSerialization.writeValueAsString(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        String toCsv() {
+            return id + "," + Optional.ofNullable(isoOf(createdTimestamp)).orElse("")
+                    + "," + Optional.ofNullable(isoOf(lastLogin)).orElse("");
+        }
+
+        private static String isoOf(Long epochMillis) {
+            return epochMillis == null ? null : Instant.ofEpochMilli(epochMillis).toString();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.wingsofovnia.keycloak.organization.admin;
+
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreator;
+import com.github.wingsofovnia.keycloak.organization.provisioning.OrganizationProvisioner;
+import com.github.wingsofovnia.keycloak.organization.webhook.OrganizationWebhooks;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.services.resources.admin.AdminEventBuilder;
+import org.keycloak.services.resources.admin.ext.AdminRealmResourceProvider;
+import org.keycloak.services.resources.admin.permissions.AdminPermissionEvaluator;
+
+public class CreateOrganizationAdminResourceProvider implements AdminRealmResourceProvider {
+
+    private final OrganizationCreator organizationCreator;
+    private final OrganizationProvisioner organizationProvisioner;
+    private final OrganizationWebhooks organizationWebhooks;
+
+    public CreateOrganizationAdminResourceProvider(
+            OrganizationCreator organizationCreator,
+            OrganizationProvisioner organizationProvisioner,
+            OrganizationWebhooks organizationWebhooks
+    ) {
+        this.organizationCreator = organizationCreator;
+        this.organizationProvisioner = organizationProvisioner;
+        this.organizationWebhooks = organizationWebhooks;
+    }
+
+    @Override
+    public Object getResource(KeycloakSession session, RealmModel realm, AdminPermissionEvaluator auth, AdminEventBuilder adminEvent) {
+        return new CreateOrganizationAdminResource(session, realm, auth, organizationCreator, organizationProvisioner, organizationWebhooks);
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
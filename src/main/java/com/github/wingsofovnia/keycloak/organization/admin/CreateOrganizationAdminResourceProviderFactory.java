@@ -0,0 +1,53 @@
+package com.github.wingsofovnia.keycloak.organization.admin;
+
+import com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredAction;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreator;
+import com.github.wingsofovnia.keycloak.organization.provisioning.OrganizationProvisioner;
+import com.github.wingsofovnia.keycloak.organization.webhook.OrganizationWebhooks;
+import org.keycloak.Config;
+import org.keycloak.authentication.RequiredActionProvider;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.services.resources.admin.ext.AdminRealmResourceProvider;
+import org.keycloak.services.resources.admin.ext.AdminRealmResourceProviderFactory;
+
+/**
+ * Registers {@link CreateOrganizationAdminResource} under {@code /admin/realms/{realm}/create-organization}.
+ */
+public class CreateOrganizationAdminResourceProviderFactory implements AdminRealmResourceProviderFactory {
+
+    public static final String PROVIDER_ID = "create-organization";
+
+    private OrganizationCreator organizationCreator;
+    private OrganizationProvisioner organizationProvisioner;
+    private OrganizationWebhooks organizationWebhooks;
+
+    @Override
+    public AdminRealmResourceProvider create(KeycloakSession session) {
+        return new CreateOrganizationAdminResourceProvider(organizationCreator, organizationProvisioner, organizationWebhooks);
+    }
+
+    @Override
+    public void init(Config.Scope config) {
+
+    }
+
+    @Override
+    public void postInit(KeycloakSessionFactory factory) {
+        final CreateOrganizationRequiredAction requiredActionFactory = (CreateOrganizationRequiredAction) factory
+                .getProviderFactory(RequiredActionProvider.class, CreateOrganizationRequiredAction.PROVIDER_ID);
+        this.organizationCreator = requiredActionFactory.getOrganizationCreator();
+        this.organizationProvisioner = requiredActionFactory.getOrganizationProvisioner();
+        this.organizationWebhooks = requiredActionFactory.getOrganizationWebhooks();
+    }
+
+    @Override
+    public void close() {
+
+    }
+
+    @Override
+    public String getId() {
+        return PROVIDER_ID;
+    }
+}
@@ -0,0 +1,353 @@
+package com.github.wingsofovnia.keycloak.organization.admin;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.github.wingsofovnia.keycloak.organization.attribute.AttributeCheckResult;
+import com.github.wingsofovnia.keycloak.organization.attribute.Attributes;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreationError;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreationException;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreator;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationDraft;
+import com.github.wingsofovnia.keycloak.organization.provisioning.OrganizationProvisioner;
+import com.github.wingsofovnia.keycloak.organization.util.OrganizationNames;
+import com.github.wingsofovnia.keycloak.organization.util.Slugifier.Slug;
+import com.github.wingsofovnia.keycloak.organization.webhook.OrganizationWebhooks;
+import jakarta.annotation.Nonnull;
+import org.jboss.logging.Logger;
+import org.keycloak.common.ClientConnection;
+import org.keycloak.events.admin.OperationType;
+import org.keycloak.events.admin.ResourceType;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.OrganizationDomainModel;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.models.utils.KeycloakModelUtils;
+import org.keycloak.models.utils.ModelToRepresentation;
+import org.keycloak.organization.OrganizationProvider;
+import org.keycloak.services.resources.admin.AdminAuth;
+import org.keycloak.services.resources.admin.AdminEventBuilder;
+import org.keycloak.util.JsonSerialization;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredAction.PROVIDER_ID;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getDomainIdGenerator;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getOrganizationAttributeDefs;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isAddAsManagedEnabled;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isDomainGenerationEnabled;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isNameTransliterationEnabled;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.generatedDomainOf;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.organizationSlugOf;
+
+/**
+ * Creates organizations, each with its owner, from NDJSON records such as
+ * {@code {"name": "Acme", "domain": "acme.com", "attributes": {"vat": "..."}, "owner": "jane"}} with the same checks,
+ * alias and domain generation and provisioning as the required action. The owner is looked up by ID, username or
+ * email and no longer has the required action pending afterward. Like organizations created by users, imported ones
+ * are written to the webhook outbox, and their creation and membership are recorded as admin events.
+ * <p>
+ * Records are read and imported batch by batch, one transaction per batch, and the result of each record is written
+ * as soon as its batch is committed, so memory use does not depend on the size of the input. If a batch fails as a
+ * whole, its records are imported again one per transaction, so a single bad record fails alone.
+ */
+public final class OrganizationImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 1_000;
+
+    public static final String STATUS_CREATED = "created";
+    public static final String STATUS_FAILED = "failed";
+
+    public static final String ERROR_INVALID_RECORD = "INVALID_RECORD";
+    public static final String ERROR_BLANK_NAME = "BLANK_NAME";
+    public static final String ERROR_BLANK_DOMAIN = "BLANK_DOMAIN";
+    public static final String ERROR_UNKNOWN_OWNER = "UNKNOWN_OWNER";
+    public static final String ERROR_OWNER_ALREADY_MEMBER = "OWNER_ALREADY_MEMBER";
+    public static final String ERROR_TRANSACTION_FAILED = "TRANSACTION_FAILED";
+
+    private static final Logger LOGGER = Logger.getLogger(OrganizationImporter.class);
+
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private final KeycloakSessionFactory sessionFactory;
+    private final String realmId;
+    private final OrganizationCreator organizationCreator;
+    private final OrganizationProvisioner organizationProvisioner;
+    private final OrganizationWebhooks organizationWebhooks;
+    private final AdminAuth adminAuth;
+    private final ClientConnection clientConnection;
+    private final int batchSize;
+
+    public OrganizationImporter(
+            @Nonnull KeycloakSessionFactory sessionFactory,
+            @Nonnull String realmId,
+            @Nonnull OrganizationCreator organizationCreator,
+            @Nonnull OrganizationProvisioner organizationProvisioner,
+            @Nonnull OrganizationWebhooks organizationWebhooks,
+            @Nonnull AdminAuth adminAuth,
+            @Nonnull ClientConnection clientConnection,
+            int batchSize
+    ) {
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        this.sessionFactory = sessionFactory;
+        this.realmId = realmId;
+        this.organizationCreator = organizationCreator;
+        this.organizationProvisioner = organizationProvisioner;
+        this.organizationWebhooks = organizationWebhooks;
+        this.adminAuth = adminAuth;
+        this.clientConnection = clientConnection;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports the records of {@code input}, writing one NDJSON result per non-blank line to {@code output}.
+     */
+    public void importFrom(@Nonnull InputStream input, @Nonnull OutputStream output) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+        final List<ImportLine> batch = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            batch.add(new ImportLine(lineNumber, line));
+            if (batch.size() == batchSize) {
+                write(writer, importBatch(batch));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(writer, importBatch(batch));
+        }
+        writer.flush();
+    }
+
+    private List<ImportResult> importBatch(List<ImportLine> lines) {
+        try {
+            return KeycloakModelUtils.runJobInTransactionWithResult(sessionFactory,
+                    session -> importLines(session, lines));
+        } catch (RuntimeException e) {
+            // The transaction could not be committed, so none of the batch was created: retry to isolate the culprit
+            LOGGER.debugf(e, "Failed to import a batch of %d organizations, importing them one by one", lines.size());
+            return lines.stream().map(this::importLine).toList();
+        }
+    }
+
+    private ImportResult importLine(ImportLine line) {
+        try {
+            return KeycloakModelUtils.runJobInTransactionWithResult(sessionFactory,
+                    session -> importLines(session, List.of(line)).get(0));
+        } catch (RuntimeException e) {
+            LOGGER.warnf(e, "Failed to import organization at line %d", line.number());
+            return ImportResult.failed(line.number(), null, ERROR_TRANSACTION_FAILED);
+        }
+    }
+
+    private List<ImportResult> importLines(KeycloakSession session, List<ImportLine> lines) {
+        final RealmModel realm = session.realms().getRealm(realmId);
+        if (realm == null) {
+            throw new IllegalStateException("Realm " + realmId + " no longer exists");
+        }
+        session.getContext().setRealm(realm);
+
+        // Admin events are stored with the batch, so they are recorded only for organizations that were created
+        final AdminEventBuilder adminEvent = new AdminEventBuilder(realm, adminAuth, session, clientConnection);
+        final List<ImportResult> results = new ArrayList<>(lines.size());
+        for (ImportLine line : lines) {
+            results.add(importRecord(session, realm, adminEvent, line));
+        }
+        if (lines.size() > 1 && session.getTransactionManager().getRollbackOnly()) {
+            // The records created so far would be rolled back with the failed one, so the batch is retried record by record
+            throw new IllegalStateException("Batch transaction was marked rollback-only");
+        }
+        return results;
+    }
+
+    private ImportResult importRecord(KeycloakSession session, RealmModel realm, AdminEventBuilder adminEvent, ImportLine line) {
+        final ImportRecord record;
+        try {
+            record = JsonSerialization.readValue(line.json(), ImportRecord.class);
+        } catch (IOException e) {
+            return ImportResult.failed(line.number(), null, ERROR_INVALID_RECORD);
+        }
+        if (record == null) {
+            return ImportResult.failed(line.number(), null, ERROR_INVALID_RECORD);
+        }
+
+        final String name = Optional.ofNullable(record.name()).map(OrganizationNames::normalizedNameOf).orElse("");
+        if (name.isEmpty()) {
+            return ImportResult.failed(line.number(), record.name(), ERROR_BLANK_NAME);
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            return ImportResult.failed(line.number(), name, ERROR_INVALID_RECORD);
+        }
+
+        final UserModel owner = ownerOf(session, realm, record.owner());
+        if (owner == null) {
+            return ImportResult.failed(line.number(), name, ERROR_UNKNOWN_OWNER);
+        }
+        final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
+        if (organizationProvider.getByMember(owner).findAny().isPresent()) {
+            return ImportResult.failed(line.number(), name, ERROR_OWNER_ALREADY_MEMBER);
+        }
+
+        final Slug slug = organizationSlugOf(name, isNameTransliterationEnabled(session));
+        final boolean isDomainGenerated = isDomainGenerationEnabled(session);
+        final String domain;
+        if (isDomainGenerated) {
+            domain = generatedDomainOf(getDomainIdGenerator(session), slug, 0);
+        } else if (record.domain() != null && !record.domain().isBlank()) {
+            domain = record.domain().trim();
+        } else {
+            return ImportResult.failed(line.number(), name, ERROR_BLANK_DOMAIN);
+        }
+
+        final Optional<Map<String, String>> maybeAttributes = checkedAttributesOf(session, record);
+        if (maybeAttributes.isEmpty()) {
+            return ImportResult.failed(line.number(), name, OrganizationCreationError.INVALID_ATTRIBUTES.name());
+        }
+
+        final OrganizationDraft draft = new OrganizationDraft(name, slug.alias(), domain, isDomainGenerated, maybeAttributes.get());
+        final Optional<OrganizationCreationError> maybeDraftError = organizationCreator.validate(session, draft);
+        if (maybeDraftError.isPresent()) {
+            return ImportResult.failed(line.number(), name, maybeDraftError.get().name());
+        }
+
+        final OrganizationModel organization;
+        try {
+            organization = organizationCreator.create(session, draft);
+        } catch (OrganizationCreationException e) {
+            if (e.isRollbackRequired()) {
+                // Rolls back the line, or the whole batch to be retried record by record, see importLines
+                session.getTransactionManager().setRollbackOnly();
+            }
+            return ImportResult.failed(line.number(), name, e.error().name());
+        }
+
+        if (isAddAsManagedEnabled(session)) {
+            organizationProvider.addManagedMember(organization, owner);
+        } else {
+            organizationProvider.addMember(organization, owner);
+        }
+        // Provisioning failures fail the whole batch, which is then retried record by record
+        organizationProvisioner.provision(session, organization, owner);
+        owner.removeRequiredAction(PROVIDER_ID);
+        organizationWebhooks.organizationCreated(session, organization, owner);
+
+        adminEvent.resource(ResourceType.ORGANIZATION)
+                .operation(OperationType.CREATE)
+                .resourcePath("organizations", organization.getId())
+                .representation(ModelToRepresentation.toRepresentation(organization))
+                .success();
+        adminEvent.resource(ResourceType.ORGANIZATION_MEMBERSHIP)
+                .operation(OperationType.CREATE)
+                .resourcePath("organizations", organization.getId(), "members", owner.getId())
+                .representation(ModelToRepresentation.toRepresentation(session, realm, owner))
+                .success();
+
+        return ImportResult.created(line.number(), organization);
+    }
+
+    private static UserModel ownerOf(KeycloakSession session, RealmModel realm, String owner) {
+        if (owner == null || owner.isBlank()) {
+            return null;
+        }
+
+        final String ownerStr = owner.trim();
+        return Optional.ofNullable(session.users().getUserById(realm, ownerStr))
+                .or(() -> Optional.ofNullable(session.users().getUserByUsername(realm, ownerStr)))
+                .or(() -> Optional.ofNullable(session.users().getUserByEmail(realm, ownerStr)))
+                .orElse(null);
+    }
+
+    /**
+     * @return the record attributes if all attributes are defined and all defined attributes pass their rules
+     */
+    private static Optional<Map<String, String>> checkedAttributesOf(KeycloakSession session, ImportRecord record) {
+        final Map<String, String> attributeDefs = getOrganizationAttributeDefs(session);
+        final Map<String, String> recordAttributes = Optional.ofNullable(record.attributes()).orElse(Map.of());
+        if (!attributeDefs.keySet().containsAll(recordAttributes.keySet())) {
+            return Optional.empty();
+        }
+
+        final Map<String, String> attributes = new LinkedHashMap<>();
+        for (Map.Entry<String, String> attributeDef : attributeDefs.entrySet()) {
+            final String attrValue = Optional.ofNullable(recordAttributes.get(attributeDef.getKey())).orElse("");
+            final AttributeCheckResult attributeCheckResult = Attributes.check(attrValue, attributeDef.getValue());
+            if (!attributeCheckResult.isValid()) {
+                return Optional.empty();
+            }
+            attributes.put(attributeDef.getKey(), attrValue);
+        }
+        return Optional.of(attributes);
+    }
+
+    private static void write(Writer writer, List<ImportResult> results) throws IOException {
+        for (ImportResult result : results) {
+            writer.write(result.toJson());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private record ImportLine(long number, String json) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record ImportRecord(String name, String domain, Map<String, String> attributes, String owner) {
+    }
+
+    private record ImportResult(long line, String name, String status, String id, String alias, String domain, String error) {
+
+        static ImportResult created(long line, OrganizationModel organization) {
+            final String domain = organization.getDomains().findFirst().map(OrganizationDomainModel::getName).orElse(null);
+            return new ImportResult(line, organization.getName(), STATUS_CREATED, organization.getId(),
+                    organization.getAlias(), domain, null);
+        }
+
+        static ImportResult failed(long line, String name, String error) {
+            return new ImportResult(line, name, STATUS_FAILED, null, null, null, error);
+        }
+
+        String toJson() {
+            final Map<String, Object> json = new LinkedHashMap<>();
+            json.put("line", line);
+            json.put("name", name);
+            json.put("status", status);
+            if (id != null) {
+                json.put("id", id);
+                json.put("alias", alias);
+                json.put("domain", domain);
+            }
+            if (error != null) {
+                json.put("error", error);
+            }
+            try {
+                return JsonSerialization.writeValueAsString(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
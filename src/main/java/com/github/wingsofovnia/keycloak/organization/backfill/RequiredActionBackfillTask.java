@@ -0,0 +1,194 @@
+package com.github.wingsofovnia.keycloak.organization.backfill;
+
+import com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionTriggers;
+import jakarta.annotation.Nonnull;
+import org.jboss.logging.Logger;
+import org.keycloak.connections.jpa.JpaConnectionProvider;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.models.utils.KeycloakModelUtils;
+import org.keycloak.timer.ScheduledTask;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredAction.PROVIDER_ID;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getBackfillBatchPause;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getBackfillBatchSize;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getBackfillBatchesPerRun;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isBackfillEnabled;
+
+/**
+ * Applies the decision of {@link CreateOrganizationRequiredActionTriggers} to all existing users of realms that
+ * have the backfill enabled, so they do not have to be evaluated lazily at their next login.
+ * <p>
+ * Users are paged by ID in batches, each decided with {@link CreateOrganizationRequiredActionTriggers#decideAll} in
+ * its own transaction, so memberships of a batch are read with one query and the caches and circuit breaker of the
+ * login path are left alone. The ID of the last processed user is stored at the end of every run in the realm
+ * attribute {@link #CHECKPOINT_ATTRIBUTE}, so the next run resumes where the previous one stopped. Every run processes
+ * a limited number of batches per realm with a pause in between to throttle the load, and stops at a failed batch,
+ * which is retried on the next run. Once all users have been processed, the checkpoint is set to
+ * {@link #CHECKPOINT_DONE}; remove the attribute to run the backfill again.
+ * <p>
+ * The login path keeps deciding per login unless event-driven trigger mode is enabled: only then do membership events
+ * keep the precomputed state current, and logins read it without deciding again.
+ */
+public class RequiredActionBackfillTask implements ScheduledTask {
+
+    public static final String TASK_NAME = PROVIDER_ID + "-backfill";
+    public static final String CHECKPOINT_ATTRIBUTE = PROVIDER_ID + ".backfill.checkpoint";
+    public static final String CHECKPOINT_DONE = "done";
+
+    private static final Logger LOGGER = Logger.getLogger(RequiredActionBackfillTask.class);
+
+    private final CreateOrganizationRequiredActionTriggers triggers;
+
+    public RequiredActionBackfillTask(@Nonnull CreateOrganizationRequiredActionTriggers triggers) {
+        this.triggers = triggers;
+    }
+
+    @Override
+    public void run(KeycloakSession session) {
+        final KeycloakSessionFactory sessionFactory = session.getKeycloakSessionFactory();
+        final List<String> realmIds = session.realms().getRealmsStream()
+                .map(RealmModel::getId)
+                .toList();
+
+        for (String realmId : realmIds) {
+            try {
+                backfillRealm(sessionFactory, realmId);
+            } catch (RuntimeException e) {
+                LOGGER.warnf(e, "Failed to backfill %s required action in realm %s, will retry on next run", PROVIDER_ID, realmId);
+            }
+        }
+    }
+
+    @Override
+    public String getTaskName() {
+        return TASK_NAME;
+    }
+
+    private void backfillRealm(KeycloakSessionFactory sessionFactory, String realmId) {
+        final BackfillSettings settings = KeycloakModelUtils.runJobInTransactionWithResult(sessionFactory, session -> {
+            final RealmModel realm = session.realms().getRealm(realmId);
+            if (realm == null) {
+                return null;
+            }
+
+            session.getContext().setRealm(realm);
+            final String checkpoint = realm.getAttribute(CHECKPOINT_ATTRIBUTE);
+            if (!isBackfillEnabled(session) || CHECKPOINT_DONE.equals(checkpoint)) {
+                return null;
+            }
+
+            return new BackfillSettings(getBackfillBatchSize(session), getBackfillBatchesPerRun(session),
+                    getBackfillBatchPause(session).toMillis(), lastUserIdOf(checkpoint));
+        });
+        if (settings == null) {
+            return;
+        }
+
+        // The checkpoint is kept in memory between batches and written once per run, as every realm attribute
+        // update invalidates the realm in the cluster-wide realm cache
+        String checkpoint = settings.lastUserId();
+        try {
+            for (int batch = 0; batch < settings.batchesPerRun(); batch++) {
+                if (batch > 0 && !pause(settings.pauseMillis())) {
+                    return;
+                }
+
+                final String lastUserId = checkpoint;
+                final BatchResult result = KeycloakModelUtils.runJobInTransactionWithResult(sessionFactory,
+                        session -> backfillBatch(session, realmId, lastUserId, settings.batchSize()));
+                checkpoint = result.checkpoint();
+                if (!result.hasMore()) {
+                    return;
+                }
+            }
+        } finally {
+            if (!Objects.equals(checkpoint, settings.lastUserId())) {
+                saveCheckpoint(sessionFactory, realmId, checkpoint);
+            }
+        }
+    }
+
+    private BatchResult backfillBatch(KeycloakSession session, String realmId, String lastUserId, int batchSize) {
+        final RealmModel realm = session.realms().getRealm(realmId);
+        if (realm == null) {
+            return new BatchResult(lastUserId, false);
+        }
+        session.getContext().setRealm(realm);
+
+        final List<String> userIds = userIdsAfter(session, realm, lastUserId, batchSize);
+        final List<UserModel> users = userIds.stream()
+                .map(userId -> session.users().getUserById(realm, userId))
+                .filter(Objects::nonNull)
+                .toList();
+        // Decided for the whole page at once; a failure rolls the batch back and is retried from the checkpoint
+        final Map<String, Boolean> decisions = triggers.decideAll(session, users);
+        users.forEach(user -> triggers.update(user, decisions.get(user.getId())));
+
+        if (userIds.size() < batchSize) {
+            LOGGER.infof("Backfill of %s required action in realm %s completed", PROVIDER_ID, realm.getName());
+            return new BatchResult(CHECKPOINT_DONE, false);
+        }
+        return new BatchResult(userIds.get(userIds.size() - 1), true);
+    }
+
+    /**
+     * Pages by user ID rather than by offset, so a batch costs the same however far the backfill has got and users
+     * added or removed meanwhile do not shift the pages. Service accounts are not users to create organizations for.
+     */
+    private static List<String> userIdsAfter(KeycloakSession session, RealmModel realm, String lastUserId, int batchSize) {
+        return session.getProvider(JpaConnectionProvider.class).getEntityManager()
+                .createQuery("""
+                        select u.id from UserEntity u
+                        where u.realmId = :realmId and u.serviceAccountClientLink is null and u.id > :lastUserId
+                        order by u.id
+                        """, String.class)
+                .setParameter("realmId", realm.getId())
+                .setParameter("lastUserId", lastUserId)
+                .setMaxResults(batchSize)
+                .getResultList();
+    }
+
+    private static void saveCheckpoint(KeycloakSessionFactory sessionFactory, String realmId, String checkpoint) {
+        KeycloakModelUtils.runJobInTransaction(sessionFactory, session -> {
+            final RealmModel realm = session.realms().getRealm(realmId);
+            if (realm != null) {
+                realm.setAttribute(CHECKPOINT_ATTRIBUTE, checkpoint);
+            }
+        });
+    }
+
+    private static String lastUserIdOf(String checkpoint) {
+        // Checkpoints written before paging by user ID were offsets, those backfills start over
+        if (checkpoint == null || checkpoint.isBlank() || checkpoint.chars().allMatch(Character::isDigit)) {
+            return "";
+        }
+        return checkpoint;
+    }
+
+    private static boolean pause(long millis) {
+        if (millis <= 0) {
+            return true;
+        }
+
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record BackfillSettings(int batchSize, int batchesPerRun, long pauseMillis, String lastUserId) {
+    }
+
+    private record BatchResult(String checkpoint, boolean hasMore) {
+    }
+}
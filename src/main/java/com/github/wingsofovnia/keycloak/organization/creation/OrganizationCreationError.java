@@ -0,0 +1,10 @@
+package com.github.wingsofovnia.keycloak.organization.creation;
+
+public enum OrganizationCreationError {
+    DUPLICATE_NAME,
+    INVALID_DOMAIN,
+    DUPLICATE_DOMAIN,
+    CONFLICTING_DOMAIN,
+    INVALID_ATTRIBUTES,
+    PROVISIONING_FAILED
+}
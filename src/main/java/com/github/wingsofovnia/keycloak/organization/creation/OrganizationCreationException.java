@@ -0,0 +1,42 @@
+package com.github.wingsofovnia.keycloak.organization.creation;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Thrown when an {@link OrganizationDraft} that passed validation is still rejected by the organization provider,
+ * e.g. because a concurrent request has taken its name in the meantime.
+ */
+public class OrganizationCreationException extends RuntimeException {
+
+    private final OrganizationCreationError error;
+    private final boolean isRollbackRequired;
+
+    public OrganizationCreationException(@Nonnull OrganizationCreationError error) {
+        super(error.name());
+        this.error = error;
+        this.isRollbackRequired = false;
+    }
+
+    public OrganizationCreationException(@Nonnull OrganizationCreationError error, @Nonnull Throwable cause) {
+        this(error, cause, false);
+    }
+
+    public OrganizationCreationException(@Nonnull OrganizationCreationError error, @Nonnull Throwable cause, boolean isRollbackRequired) {
+        super(error.name(), cause);
+        this.error = error;
+        this.isRollbackRequired = isRollbackRequired;
+    }
+
+    @Nonnull
+    public OrganizationCreationError error() {
+        return error;
+    }
+
+    /**
+     * @return whether the organization has already been partly written, so the caller has to mark the session
+     * transaction rollback-only rather than commit it
+     */
+    public boolean isRollbackRequired() {
+        return isRollbackRequired;
+    }
+}
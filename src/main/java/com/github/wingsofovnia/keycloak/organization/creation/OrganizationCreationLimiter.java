@@ -0,0 +1,109 @@
+package com.github.wingsofovnia.keycloak.organization.creation;
+
+import com.github.wingsofovnia.keycloak.organization.util.BoundedCache;
+import com.github.wingsofovnia.keycloak.organization.util.TokenBucket;
+import jakarta.annotation.Nonnull;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.provider.ProviderEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getCreationRatePerClient;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getCreationRatePerRealm;
+
+/**
+ * Admission control for organization creation, with {@link TokenBucket}s per realm and per client address and user,
+ * refilled at the configured rate per {@link #RATE_PERIOD}. Limits are per node, so the effective cluster-wide rate
+ * grows with the number of nodes.
+ * <p>
+ * A creation is admitted only if all buckets have a token. Tokens are given back if a later bucket rejects it, and
+ * by {@link #release} if the admitted creation then fails (e.g. on a taken name), so that only organizations that
+ * get created count against the limits.
+ */
+public final class OrganizationCreationLimiter {
+
+    public static final Duration RATE_PERIOD = Duration.ofMinutes(1);
+
+    private static final int MAX_LIMITED_CLIENTS = 100_000;
+
+    private final Map<String, TokenBucket> realmBuckets = new ConcurrentHashMap<>();
+    // Idle buckets are full again long before they expire, so evicting them loses nothing
+    private final BoundedCache<String, TokenBucket> clientBuckets = new BoundedCache<>(MAX_LIMITED_CLIENTS, Duration.ofMinutes(10));
+
+    /**
+     * @return the time to wait before trying again if the creation is not admitted, empty if it is
+     */
+    @Nonnull
+    public Optional<Duration> tryAdmit(@Nonnull KeycloakSession session, @Nonnull UserModel user) {
+        return tryAdmit(bucketsOf(session, user));
+    }
+
+    /**
+     * Gives back the tokens of a creation admitted by {@link #tryAdmit} that failed.
+     */
+    public void release(@Nonnull KeycloakSession session, @Nonnull UserModel user) {
+        bucketsOf(session, user).forEach(TokenBucket::release);
+    }
+
+    /**
+     * Intended to be registered with {@link org.keycloak.models.KeycloakSessionFactory#register}.
+     */
+    public void onEvent(ProviderEvent event) {
+        if (event instanceof RealmModel.RealmRemovedEvent realmRemovedEvent) {
+            realmBuckets.remove(realmRemovedEvent.getRealm().getId());
+        }
+    }
+
+    private List<TokenBucket> bucketsOf(KeycloakSession session, UserModel user) {
+        final String realmId = session.getContext().getRealm().getId();
+        return bucketsOf(realmId, session.getContext().getConnection().getRemoteAddr(), user.getId(),
+                getCreationRatePerClient(session), getCreationRatePerRealm(session));
+    }
+
+    /**
+     * @return the buckets a creation takes a token from, client buckets first, none for rates that are not positive
+     */
+    List<TokenBucket> bucketsOf(String realmId, String remoteAddr, String userId, long clientRate, long realmRate) {
+        final List<TokenBucket> buckets = new ArrayList<>(3);
+        if (clientRate > 0) {
+            buckets.add(clientBucketOf(realmId + "/address/" + remoteAddr, clientRate));
+            buckets.add(clientBucketOf(realmId + "/user/" + userId, clientRate));
+        }
+        if (realmRate > 0) {
+            buckets.add(realmBucketOf(realmId, realmRate));
+        }
+        return buckets;
+    }
+
+    static Optional<Duration> tryAdmit(List<TokenBucket> buckets) {
+        for (int i = 0; i < buckets.size(); i++) {
+            final TokenBucket bucket = buckets.get(i);
+            if (!bucket.tryAcquire()) {
+                buckets.subList(0, i).forEach(TokenBucket::release);
+                return Optional.of(bucket.timeToNextToken());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private TokenBucket realmBucketOf(String realmId, long rate) {
+        final TokenBucket bucket = realmBuckets.get(realmId);
+        if (bucket != null && bucket.capacity() == rate) {
+            return bucket;
+        }
+        // First creation in the realm or the rate was reconfigured
+        return realmBuckets.compute(realmId, (id, existing) ->
+                existing != null && existing.capacity() == rate ? existing : new TokenBucket(rate, RATE_PERIOD));
+    }
+
+    private TokenBucket clientBucketOf(String key, long rate) {
+        return clientBuckets.computeIfAbsent(key + "/" + rate, k -> new TokenBucket(rate, RATE_PERIOD));
+    }
+}
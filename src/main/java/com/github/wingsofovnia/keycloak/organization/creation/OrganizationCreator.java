@@ -0,0 +1,171 @@
+package com.github.wingsofovnia.keycloak.organization.creation;
+
+import jakarta.annotation.Nonnull;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.ModelDuplicateException;
+import org.keycloak.models.ModelValidationException;
+import org.keycloak.models.OrganizationDomainModel;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.organization.OrganizationProvider;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getDomainIdGenerator;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isAliasSuffixEnabled;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isHierarchicalDomainConflictEnabled;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isNameTransliterationEnabled;
+import static com.github.wingsofovnia.keycloak.organization.util.Maps.multivaluedMapOf;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.generatedDomainOf;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.isValidDomainName;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.organizationSlugOf;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.suffixedAliasOf;
+
+/**
+ * Validates and creates organizations from {@link OrganizationDraft}s.
+ * <p>
+ * All checks that can be answered without writing are done by {@link #validate}, so an invalid submit costs
+ * only reads instead of an insert, an update and a compensating delete (each invalidating caches across the cluster).
+ * {@link #create} itself is not a single write, but its writes are committed or rolled back together, see there.
+ */
+public final class OrganizationCreator {
+
+    public static final int MAX_ALIAS_ATTEMPTS = 5;
+    public static final int MAX_DOMAIN_ATTEMPTS = 3;
+
+    private final OrganizationNameIndex nameIndex;
+    private final OrganizationDomainIndex domainIndex;
+    private final OrganizationSnapshots snapshots;
+    private final OrganizationReservations reservations;
+
+    public OrganizationCreator(
+            @Nonnull OrganizationNameIndex nameIndex,
+            @Nonnull OrganizationDomainIndex domainIndex,
+            @Nonnull OrganizationSnapshots snapshots,
+            @Nonnull OrganizationReservations reservations
+    ) {
+        this.nameIndex = nameIndex;
+        this.domainIndex = domainIndex;
+        this.snapshots = snapshots;
+        this.reservations = reservations;
+    }
+
+    /**
+     * @return the first problem that would make the creation of the organization fail, if any
+     */
+    public Optional<OrganizationCreationError> validate(@Nonnull KeycloakSession session, @Nonnull OrganizationDraft draft) {
+        if (draft.attributes().keySet().stream().anyMatch(attrName -> attrName == null || attrName.isBlank())) {
+            return Optional.of(OrganizationCreationError.INVALID_ATTRIBUTES);
+        }
+
+        // Generated domains are valid by construction and generated again if taken, see create
+        if (!draft.isDomainGenerated() && !isValidDomainName(draft.domain())) {
+            return Optional.of(OrganizationCreationError.INVALID_DOMAIN);
+        }
+
+        if (!isNameAvailable(session, draft.name())) {
+            return Optional.of(OrganizationCreationError.DUPLICATE_NAME);
+        }
+
+        if (!draft.isDomainGenerated()) {
+            // As with names, the database is asked only about conflicts known to the index
+            final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
+            final Optional<String> maybeConflictingDomain = domainIndex
+                    .findConflictOf(session, draft.domain(), isHierarchicalDomainConflictEnabled(session))
+                    .filter(conflictingDomain -> organizationProvider.getByDomainName(conflictingDomain) != null);
+            if (maybeConflictingDomain.isPresent()) {
+                return Optional.of(maybeConflictingDomain.get().equalsIgnoreCase(draft.domain())
+                        ? OrganizationCreationError.DUPLICATE_DOMAIN
+                        : OrganizationCreationError.CONFLICTING_DOMAIN);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * @return whether no organization has the name or a name confusable with it yet. Names unknown to the index are
+     * free as far as this node knows, so the database is asked only about the confusable names the index holds.
+     */
+    public boolean isNameAvailable(@Nonnull KeycloakSession session, @Nonnull String name) {
+        final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
+        return nameIndex.findNamesConfusableWith(session, name).stream()
+                .noneMatch(confusableName -> isNameTaken(organizationProvider, confusableName));
+    }
+
+    /**
+     * Creates the organization, then sets its domain and then its attributes, as three writes within the session
+     * transaction (the provider has no single call for all of them). Validation makes failures of the later writes
+     * rare, but if the provider still rejects the domain or the attributes (e.g. due to a concurrent request), the
+     * thrown exception {@linkplain OrganizationCreationException#isRollbackRequired requires} the caller to mark the
+     * transaction rollback-only, so the organization created so far is never committed, rather than removed again.
+     */
+    public OrganizationModel create(@Nonnull KeycloakSession session, @Nonnull OrganizationDraft draft) throws OrganizationCreationException {
+        final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
+
+        final boolean isAliasSuffixEnabled = isAliasSuffixEnabled(session);
+
+        // A concurrent submit of the same name, possibly on another node, holds the reservation until it completes
+        if (!reservations.reserveName(session, draft.name())) {
+            throw new OrganizationCreationException(OrganizationCreationError.DUPLICATE_NAME);
+        }
+
+        // Skip aliases known to be taken or reserved. The provider also looks up the name and alias before
+        // inserting, so a duplicate costs no failed insert. If only the alias is taken, retry with a suffixed one
+        // instead of rejecting the user's name.
+        OrganizationModel organization = null;
+        String alias = draft.alias();
+        int attempt = 1;
+        if (isAliasSuffixEnabled) {
+            for (; attempt < MAX_ALIAS_ATTEMPTS && nameIndex.mightContainAlias(session, alias); attempt++) {
+                alias = suffixedAliasOf(draft.alias());
+            }
+        }
+        for (; organization == null; attempt++) {
+            // Every alias passed to the provider is reserved first, including those suffixed after a duplicate
+            if (!reservations.reserveAlias(session, alias)) {
+                if (!isAliasSuffixEnabled || attempt >= MAX_ALIAS_ATTEMPTS) {
+                    throw new OrganizationCreationException(OrganizationCreationError.DUPLICATE_NAME);
+                }
+                alias = suffixedAliasOf(draft.alias());
+                continue;
+            }
+            try {
+                organization = organizationProvider.create(draft.name(), alias);
+            } catch (ModelDuplicateException e) {
+                if (!isAliasSuffixEnabled || attempt >= MAX_ALIAS_ATTEMPTS || isNameTaken(organizationProvider, draft.name())) {
+                    throw new OrganizationCreationException(OrganizationCreationError.DUPLICATE_NAME, e);
+                }
+                alias = suffixedAliasOf(draft.alias());
+            }
+        }
+
+        // Generated domains are unique with high probability only, so a taken one is generated again
+        String domain = draft.domain();
+        for (int domainAttempt = 1; ; domainAttempt++) {
+            try {
+                organization.setDomains(Set.of(new OrganizationDomainModel(domain)));
+                break;
+            } catch (ModelValidationException e) {
+                if (!draft.isDomainGenerated() || domainAttempt >= MAX_DOMAIN_ATTEMPTS) {
+                    throw new OrganizationCreationException(OrganizationCreationError.INVALID_DOMAIN, e, true);
+                }
+                domain = generatedDomainOf(getDomainIdGenerator(session),
+                        organizationSlugOf(draft.name(), isNameTransliterationEnabled(session)), domainAttempt);
+            }
+        }
+
+        try {
+            organization.setAttributes(multivaluedMapOf(draft.attributes()));
+        } catch (ModelValidationException e) {
+            throw new OrganizationCreationException(OrganizationCreationError.INVALID_ATTRIBUTES, e, true);
+        }
+
+        snapshots.add(session, organization);
+        return organization;
+    }
+
+    private static boolean isNameTaken(OrganizationProvider organizationProvider, String name) {
+        return organizationProvider.getAllStream(name, true, 0, 1).findAny().isPresent();
+    }
+}
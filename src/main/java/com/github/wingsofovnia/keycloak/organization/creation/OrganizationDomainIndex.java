@@ -0,0 +1,97 @@
+package com.github.wingsofovnia.keycloak.organization.creation;
+
+import com.github.wingsofovnia.keycloak.organization.util.DomainTrie;
+import jakarta.annotation.Nonnull;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.OrganizationDomainModel;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A per-node, per-realm in-memory index of organization domains, stored as a {@link DomainTrie} so that exact
+ * duplicates as well as parent and subdomain conflicts are found in a number of steps proportional to the number of
+ * domain labels.
+ * <p>
+ * The index is a view of the {@link OrganizationSnapshots} of the realm, so it may be stale: conflicts it reports
+ * have to be confirmed by the database, and domains linked elsewhere since the last load are still rejected by the
+ * provider when the domain is set.
+ */
+public final class OrganizationDomainIndex {
+
+    private final OrganizationSnapshots snapshots;
+
+    public OrganizationDomainIndex(@Nonnull OrganizationSnapshots snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * @param isHierarchical whether parent domains and subdomains of existing ones conflict too
+     * @return the indexed domain the given one conflicts with: the domain itself, then its closest parent, then any
+     * of its subdomains
+     */
+    public Optional<String> findConflictOf(@Nonnull KeycloakSession session, @Nonnull String domain, boolean isHierarchical) {
+        return snapshots.snapshotOf(session).domains.findConflictOf(domain, isHierarchical);
+    }
+
+    /**
+     * @return the ID of the organization the exact domain is linked to and verified for. Unverified domains are
+     * whatever the creator of the organization typed, so they do not prove ownership.
+     */
+    public Optional<String> findVerifiedOrganizationIdOf(@Nonnull KeycloakSession session, @Nonnull String domain) {
+        return snapshots.snapshotOf(session).domains.findVerifiedOrganizationIdOf(domain);
+    }
+
+    static final class RealmIndex {
+        private final DomainTrie<String> domains = new DomainTrie<>();
+        private final Map<String, String> verifiedDomains = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void add(String organizationId, Collection<OrganizationDomainModel> organizationDomains) {
+            lock.writeLock().lock();
+            try {
+                for (OrganizationDomainModel domain : organizationDomains) {
+                    domains.put(domain.getName(), organizationId);
+                    if (domain.isVerified()) {
+                        verifiedDomains.put(verifiedKeyOf(domain.getName()), organizationId);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        Optional<String> findVerifiedOrganizationIdOf(String domain) {
+            lock.readLock().lock();
+            try {
+                return Optional.ofNullable(verifiedDomains.get(verifiedKeyOf(domain)));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static String verifiedKeyOf(String domain) {
+            return domain.trim().toLowerCase(Locale.ROOT);
+        }
+
+        Optional<String> findConflictOf(String domain, boolean isHierarchical) {
+            lock.readLock().lock();
+            try {
+                if (domains.get(domain).isPresent()) {
+                    return Optional.of(domain);
+                }
+                if (!isHierarchical) {
+                    return Optional.empty();
+                }
+                return domains.findParentOf(domain).or(() -> domains.findSubdomainOf(domain));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
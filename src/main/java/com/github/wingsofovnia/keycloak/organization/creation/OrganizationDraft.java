@@ -0,0 +1,25 @@
+package com.github.wingsofovnia.keycloak.organization.creation;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A not yet persisted organization, collected and pre-validated before anything is written.
+ *
+ * @param isDomainGenerated whether the domain has been generated rather than entered by the user
+ */
+public record OrganizationDraft(
+        @Nonnull String name,
+        @Nonnull String alias,
+        @Nonnull String domain,
+        boolean isDomainGenerated,
+        @Nonnull Map<String, String> attributes
+) {
+    public OrganizationDraft {
+        // Attribute values may be null, which Map.copyOf does not allow
+        attributes = Collections.unmodifiableMap(new HashMap<>(attributes));
+    }
+}
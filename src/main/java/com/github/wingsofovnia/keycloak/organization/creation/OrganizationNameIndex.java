@@ -0,0 +1,72 @@
+package com.github.wingsofovnia.keycloak.organization.creation;
+
+import com.github.wingsofovnia.keycloak.organization.util.OrganizationNames;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.organization.OrganizationProvider;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.github.wingsofovnia.keycloak.organization.util.OrganizationNames.skeletonOf;
+
+/**
+ * A per-node, per-realm in-memory index of organization names and aliases. Names are indexed by their
+ * {@linkplain OrganizationNames#skeletonOf confusable skeleton}, so that lookalike names are found with a single
+ * hash lookup, however many organizations there are.
+ * <p>
+ * The index is a view of the {@link OrganizationSnapshots} of the realm, so it may be stale. It is a prefilter only:
+ * a miss means the value is free as far as this node knows and needs no database lookup, while a hit has to be
+ * confirmed by the database. Organizations created elsewhere since the last load are still caught by the duplicate
+ * checks of {@link OrganizationProvider#create}.
+ */
+public final class OrganizationNameIndex {
+
+    private final OrganizationSnapshots snapshots;
+
+    public OrganizationNameIndex(@Nonnull OrganizationSnapshots snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * @return the indexed names confusable with the given one (including the name itself), empty if none
+     */
+    public Set<String> findNamesConfusableWith(@Nonnull KeycloakSession session, @Nonnull String name) {
+        return snapshots.snapshotOf(session).names.valuesOf(nameKeyOf(name));
+    }
+
+    public boolean mightContainAlias(@Nonnull KeycloakSession session, @Nonnull String alias) {
+        return !snapshots.snapshotOf(session).names.valuesOf(aliasKeyOf(alias)).isEmpty();
+    }
+
+    private static String nameKeyOf(String name) {
+        return "n:" + skeletonOf(name);
+    }
+
+    private static String aliasKeyOf(String alias) {
+        return "a:" + alias.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static final class RealmIndex {
+        private final Map<String, Set<String>> values = new ConcurrentHashMap<>();
+
+        void add(String name, @Nullable String alias) {
+            add(nameKeyOf(name), name);
+            if (alias != null) {
+                add(aliasKeyOf(alias), alias);
+            }
+        }
+
+        private void add(String key, String value) {
+            values.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(value);
+        }
+
+        Set<String> valuesOf(String key) {
+            return Optional.ofNullable(values.get(key)).map(Set::copyOf).orElse(Set.of());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.wingsofovnia.keycloak.organization.creation;
+
+import jakarta.annotation.Nonnull;
+import org.jboss.logging.Logger;
+import org.keycloak.models.AbstractKeycloakTransaction;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.SingleUseObjectProvider;
+import org.keycloak.models.utils.KeycloakModelUtils;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredAction.PROVIDER_ID;
+import static com.github.wingsofovnia.keycloak.organization.util.OrganizationNames.skeletonOf;
+
+/**
+ * Short-lived, cluster-wide reservations of organization names and aliases that are about to be created.
+ * <p>
+ * Reservations are stored with {@link SingleUseObjectProvider#putIfAbsent}, which is replicated across the cluster
+ * and resolves concurrent attempts immediately, i.e. before anything is written to the database. They are released
+ * once the transaction of the session that took them completes, and expire after {@link #LIFESPAN} should the node
+ * fail before that.
+ */
+public final class OrganizationReservations {
+
+    public static final Duration LIFESPAN = Duration.ofSeconds(30);
+
+    private static final Logger LOGGER = Logger.getLogger(OrganizationReservations.class);
+
+    private static final String KEY_PREFIX = PROVIDER_ID + ".reservation.";
+
+    /**
+     * @return {@code true} if the name is now reserved by this session, {@code false} if another one holds it
+     */
+    public boolean reserveName(@Nonnull KeycloakSession session, @Nonnull String name) {
+        // Confusable names are reserved together
+        return reserve(session, "name", skeletonOf(name));
+    }
+
+    /**
+     * @return {@code true} if the alias is now reserved by this session, {@code false} if another one holds it
+     */
+    public boolean reserveAlias(@Nonnull KeycloakSession session, @Nonnull String alias) {
+        return reserve(session, "alias", alias);
+    }
+
+    private boolean reserve(KeycloakSession session, String kind, String value) {
+        final String key = KEY_PREFIX + session.getContext().getRealm().getId() + "." + kind + "." + value.trim().toLowerCase(Locale.ROOT);
+        if (!session.singleUseObjects().putIfAbsent(key, LIFESPAN.toSeconds())) {
+            return false;
+        }
+
+        final KeycloakSessionFactory sessionFactory = session.getKeycloakSessionFactory();
+        session.getTransactionManager().enlistAfterCompletion(new AbstractKeycloakTransaction() {
+            @Override
+            protected void commitImpl() {
+                release(sessionFactory, key);
+            }
+
+            @Override
+            protected void rollbackImpl() {
+                release(sessionFactory, key);
+            }
+        });
+        return true;
+    }
+
+    private static void release(KeycloakSessionFactory sessionFactory, String key) {
+        try {
+            KeycloakModelUtils.runJobInTransaction(sessionFactory, session -> session.singleUseObjects().remove(key));
+        } catch (RuntimeException e) {
+            // The reservation expires on its own
+            LOGGER.debugf(e, "Failed to release organization reservation %s", key);
+        }
+    }
+}
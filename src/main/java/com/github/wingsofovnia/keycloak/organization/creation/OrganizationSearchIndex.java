@@ -0,0 +1,79 @@
+package com.github.wingsofovnia.keycloak.organization.creation;
+
+import com.github.wingsofovnia.keycloak.organization.util.PrefixIndex;
+import com.github.wingsofovnia.keycloak.organization.util.Slugifier;
+import jakarta.annotation.Nonnull;
+import org.keycloak.models.KeycloakSession;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A per-node, per-realm in-memory index of organization names for type-ahead search, stored as a {@link PrefixIndex}
+ * so that a search costs no database query and reads no more entries than it returns.
+ * <p>
+ * Names are indexed by their transliterated {@linkplain Slugifier slug} from the start of every word, so
+ * {@code caf} and {@code mul} both find {@code Caf\u00e9 M\u00fcller}. The index is a view of the
+ * {@link OrganizationSnapshots} of the realm, so it may return organizations removed or renamed elsewhere since the
+ * last load: results are IDs to be looked up before use.
+ */
+public final class OrganizationSearchIndex {
+
+    private static final char WORD_DELIMITER = '_';
+
+    private final OrganizationSnapshots snapshots;
+
+    public OrganizationSearchIndex(@Nonnull OrganizationSnapshots snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * @return IDs of up to {@code limit} organizations with a word of their name starting with the query, empty if
+     * the query has no letters or digits
+     */
+    public List<String> search(@Nonnull KeycloakSession session, @Nonnull String query, int limit) {
+        final String prefix = keyOf(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        return snapshots.snapshotOf(session).search.search(prefix, limit);
+    }
+
+    private static String keyOf(String name) {
+        return Slugifier.slugOf(name, true).alias();
+    }
+
+    static final class RealmIndex {
+        private final PrefixIndex<String> names = new PrefixIndex<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void add(String organizationId, String name) {
+            final String key = keyOf(name);
+            if (key.isEmpty()) {
+                return;
+            }
+
+            lock.writeLock().lock();
+            try {
+                // "acme_anvil_works" is stored as is and as "anvil_works" and "works"
+                int wordStart = 0;
+                do {
+                    names.put(key.substring(wordStart), organizationId);
+                    wordStart = key.indexOf(WORD_DELIMITER, wordStart) + 1;
+                } while (wordStart > 0);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<String> search(String prefix, int limit) {
+            lock.readLock().lock();
+            try {
+                return names.search(prefix, limit);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
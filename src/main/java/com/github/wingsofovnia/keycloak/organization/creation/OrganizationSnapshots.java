@@ -0,0 +1,275 @@
+package com.github.wingsofovnia.keycloak.organization.creation;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import org.jboss.logging.Logger;
+import org.keycloak.connections.jpa.JpaConnectionProvider;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.OrganizationDomainModel;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.utils.KeycloakModelUtils;
+import org.keycloak.organization.OrganizationProvider;
+import org.keycloak.provider.ProviderEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * A per-node, per-realm in-memory snapshot of organizations, from which {@link OrganizationNameIndex},
+ * {@link OrganizationDomainIndex} and {@link OrganizationSearchIndex} are answered, so that the organizations of a
+ * realm and their domains are read from the database once per {@link #RELOAD_INTERVAL} for all of them.
+ * <p>
+ * Snapshots are loaded in a session of their own on a background thread, with projections of the organization and
+ * domain tables paged by organization ID, so no organization is loaded into the persistence context of a request.
+ * Only the first load of a realm is waited for by the requests needing it. Once expired, a snapshot is reloaded in
+ * the background while requests keep using the expired one until the new one is ready. Snapshots may be stale:
+ * organizations created on this node are added right away, while those created or removed elsewhere (other nodes,
+ * admin console) are only picked up by the next reload.
+ */
+public final class OrganizationSnapshots {
+
+    public static final Duration RELOAD_INTERVAL = Duration.ofMinutes(10);
+
+    private static final Logger LOGGER = Logger.getLogger(OrganizationSnapshots.class);
+
+    private static final int LOAD_PAGE_SIZE = 1_000;
+
+    private final Map<String, CompletableFuture<RealmSnapshot>> realmSnapshots = new ConcurrentHashMap<>();
+    private final Executor loadExecutor;
+    private final BiFunction<KeycloakSessionFactory, String, RealmSnapshot> loader;
+    private final LongSupplier clock;
+
+    public OrganizationSnapshots() {
+        this(Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "organization-snapshot-loader");
+            thread.setDaemon(true);
+            return thread;
+        }), OrganizationSnapshots::loadInOwnSession, System::currentTimeMillis);
+    }
+
+    OrganizationSnapshots(
+            @Nonnull Executor loadExecutor,
+            @Nonnull BiFunction<KeycloakSessionFactory, String, RealmSnapshot> loader,
+            @Nonnull LongSupplier clock
+    ) {
+        this.loadExecutor = loadExecutor;
+        this.loader = loader;
+        this.clock = clock;
+    }
+
+    /**
+     * Adds an organization created on this node, so it is known before the next reload.
+     */
+    public void add(@Nonnull KeycloakSession session, @Nonnull OrganizationModel organization) {
+        snapshotOf(session).add(organization);
+    }
+
+    public void invalidateRealm(@Nonnull String realmId) {
+        realmSnapshots.remove(realmId);
+    }
+
+    /**
+     * Intended to be registered with {@link org.keycloak.models.KeycloakSessionFactory#register}.
+     */
+    public void onEvent(ProviderEvent event) {
+        if (event instanceof RealmModel.RealmRemovedEvent realmRemovedEvent) {
+            invalidateRealm(realmRemovedEvent.getRealm().getId());
+        }
+    }
+
+    /**
+     * Stops loading snapshots, to be called when the provider factory is closed.
+     */
+    public void close() {
+        if (loadExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    RealmSnapshot snapshotOf(KeycloakSession session) {
+        final String realmId = session.getContext().getRealm().getId();
+        // Only the factory is handed over to the loader thread, the request session stays on the request thread
+        final KeycloakSessionFactory sessionFactory = session.getKeycloakSessionFactory();
+
+        CompletableFuture<RealmSnapshot> current = realmSnapshots.get(realmId);
+        if (current == null) {
+            final CompletableFuture<RealmSnapshot> loading = new CompletableFuture<>();
+            current = realmSnapshots.putIfAbsent(realmId, loading);
+            if (current == null) {
+                current = loading;
+                load(sessionFactory, realmId, loading);
+            }
+        }
+
+        final RealmSnapshot snapshot = current.join();
+        if (isExpired(snapshot) && snapshot.claimReload()) {
+            reload(sessionFactory, realmId, current, snapshot);
+        }
+        return snapshot;
+    }
+
+    private void load(KeycloakSessionFactory sessionFactory, String realmId, CompletableFuture<RealmSnapshot> loading) {
+        try {
+            CompletableFuture.supplyAsync(() -> loaded(loader.apply(sessionFactory, realmId)), loadExecutor)
+                    .whenComplete((snapshot, failure) -> {
+                        if (failure == null) {
+                            loading.complete(snapshot);
+                        } else {
+                            // Requests waiting for it fail, the next one loads again
+                            realmSnapshots.remove(realmId, loading);
+                            loading.completeExceptionally(failure);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            realmSnapshots.remove(realmId, loading);
+            loading.completeExceptionally(e);
+        }
+    }
+
+    private void reload(KeycloakSessionFactory sessionFactory, String realmId,
+                        CompletableFuture<RealmSnapshot> current, RealmSnapshot expired) {
+        try {
+            CompletableFuture.supplyAsync(() -> loaded(loader.apply(sessionFactory, realmId)), loadExecutor)
+                    .whenComplete((reloaded, failure) -> {
+                        if (failure == null) {
+                            realmSnapshots.replace(realmId, current, CompletableFuture.completedFuture(reloaded));
+                        } else {
+                            LOGGER.warnf(failure, "Failed to reload organizations of realm %s, keeping the previous snapshot", realmId);
+                            expired.releaseReload();
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            expired.releaseReload();
+        }
+    }
+
+    private RealmSnapshot loaded(RealmSnapshot snapshot) {
+        snapshot.loadedAt = clock.getAsLong();
+        return snapshot;
+    }
+
+    private boolean isExpired(RealmSnapshot snapshot) {
+        return clock.getAsLong() - snapshot.loadedAt >= RELOAD_INTERVAL.toMillis();
+    }
+
+    private static RealmSnapshot loadInOwnSession(KeycloakSessionFactory sessionFactory, String realmId) {
+        return KeycloakModelUtils.runJobInTransactionWithResult(sessionFactory, session -> {
+            final RealmModel realm = session.realms().getRealm(realmId);
+            if (realm == null) {
+                return new RealmSnapshot();
+            }
+            session.getContext().setRealm(realm);
+            return load(session, realmId);
+        });
+    }
+
+    /**
+     * Reads organizations and their domains with one projection query per {@link #LOAD_PAGE_SIZE} organizations, paged
+     * by organization ID so every page costs the same, and one query for all domains of the realm. Falls back to the
+     * {@link OrganizationProvider} where organizations are not stored with JPA.
+     */
+    static RealmSnapshot load(KeycloakSession session, String realmId) {
+        final RealmSnapshot snapshot = new RealmSnapshot();
+
+        final JpaConnectionProvider jpaConnectionProvider = session.getProvider(JpaConnectionProvider.class);
+        if (jpaConnectionProvider == null) {
+            final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
+            int first = 0;
+            List<OrganizationModel> page;
+            do {
+                page = organizationProvider.getAllStream("", false, first, LOAD_PAGE_SIZE).toList();
+                page.forEach(snapshot::add);
+                first += LOAD_PAGE_SIZE;
+            } while (page.size() == LOAD_PAGE_SIZE);
+            return snapshot;
+        }
+
+        final EntityManager entityManager = jpaConnectionProvider.getEntityManager();
+        final Map<String, List<OrganizationDomainModel>> domainsByOrganizationId = domainsOf(entityManager, realmId);
+        String lastOrganizationId = "";
+        List<Object[]> page;
+        do {
+            page = entityManager
+                    .createQuery("""
+                            select o.id, o.name, o.alias from OrganizationEntity o
+                            where o.realmId = :realmId and o.id > :lastOrganizationId
+                            order by o.id
+                            """, Object[].class)
+                    .setParameter("realmId", realmId)
+                    .setParameter("lastOrganizationId", lastOrganizationId)
+                    .setMaxResults(LOAD_PAGE_SIZE)
+                    .getResultList();
+            for (Object[] row : page) {
+                lastOrganizationId = (String) row[0];
+                snapshot.add(lastOrganizationId, (String) row[1], (String) row[2],
+                        domainsByOrganizationId.getOrDefault(lastOrganizationId, List.of()));
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        return snapshot;
+    }
+
+    /**
+     * @return the domains of all organizations of the realm by organization ID, read with a single query rather than
+     * with one {@link OrganizationModel#getDomains} query per organization
+     */
+    private static Map<String, List<OrganizationDomainModel>> domainsOf(EntityManager entityManager, String realmId) {
+        final List<Object[]> rows = entityManager
+                .createQuery("""
+                        select d.organization.id, d.name, d.verified from OrganizationDomainEntity d
+                        where d.organization.realmId = :realmId
+                        """, Object[].class)
+                .setParameter("realmId", realmId)
+                .getResultList();
+
+        final Map<String, List<OrganizationDomainModel>> domainsByOrganizationId = new HashMap<>();
+        for (Object[] row : rows) {
+            domainsByOrganizationId
+                    .computeIfAbsent((String) row[0], id -> new ArrayList<>())
+                    .add(new OrganizationDomainModel((String) row[1], Boolean.TRUE.equals(row[2])));
+        }
+        return domainsByOrganizationId;
+    }
+
+    static final class RealmSnapshot {
+        final OrganizationNameIndex.RealmIndex names = new OrganizationNameIndex.RealmIndex();
+        final OrganizationDomainIndex.RealmIndex domains = new OrganizationDomainIndex.RealmIndex();
+        final OrganizationSearchIndex.RealmIndex search = new OrganizationSearchIndex.RealmIndex();
+
+        private final AtomicBoolean isReloading = new AtomicBoolean();
+        private volatile long loadedAt;
+
+        void add(OrganizationModel organization) {
+            add(organization.getId(), organization.getName(), organization.getAlias(), organization.getDomains().toList());
+        }
+
+        void add(String organizationId, String name, @Nullable String alias, List<OrganizationDomainModel> organizationDomains) {
+            names.add(name, alias);
+            domains.add(organizationId, organizationDomains);
+            search.add(organizationId, name);
+        }
+
+        boolean claimReload() {
+            return isReloading.compareAndSet(false, true);
+        }
+
+        void releaseReload() {
+            isReloading.set(false);
+        }
+    }
+}
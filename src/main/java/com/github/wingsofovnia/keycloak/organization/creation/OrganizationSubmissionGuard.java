@@ -0,0 +1,155 @@
+package com.github.wingsofovnia.keycloak.organization.creation;
+
+import com.github.wingsofovnia.keycloak.organization.util.BoundedCache;
+import com.github.wingsofovnia.keycloak.organization.util.StripedLock;
+import jakarta.annotation.Nonnull;
+import org.jboss.logging.Logger;
+import org.keycloak.models.AbstractKeycloakTransaction;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.UserModel;
+import org.keycloak.models.utils.KeycloakModelUtils;
+import org.keycloak.sessions.AuthenticationSessionModel;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredAction.PROVIDER_ID;
+
+/**
+ * Makes organization creation idempotent under double submits and retried requests.
+ * <p>
+ * Every rendered form carries a submission token that is also kept in the authentication session. Submits are
+ * serialized per user until their transaction completes, and the organization created for a token is remembered
+ * (in the authentication session and, once committed, in a per-node cache), so a repeated submit of the same token
+ * can replay the outcome instead of creating the organization again.
+ */
+public final class OrganizationSubmissionGuard {
+
+    public static final String SUBMISSION_TOKEN_NOTE = PROVIDER_ID + ".submission-token";
+    public static final String CREATED_ORGANIZATION_NOTE = PROVIDER_ID + ".created-organization";
+
+    public static final Duration LOCK_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Logger LOGGER = Logger.getLogger(OrganizationSubmissionGuard.class);
+
+    private static final int LOCK_STRIPES = 256;
+    private static final int MAX_OUTCOMES = 10_000;
+    private static final Duration OUTCOME_TTL = Duration.ofMinutes(5);
+
+    private final StripedLock userLocks = new StripedLock(LOCK_STRIPES);
+    private final BoundedCache<String, String> createdOrganizationIds = new BoundedCache<>(MAX_OUTCOMES, OUTCOME_TTL);
+
+    /**
+     * Issues a new submission token for the form about to be rendered.
+     */
+    public static String issueSubmissionToken(@Nonnull AuthenticationSessionModel authSession) {
+        final String submissionToken = KeycloakModelUtils.generateId();
+        authSession.setAuthNote(SUBMISSION_TOKEN_NOTE, submissionToken);
+        return submissionToken;
+    }
+
+    /**
+     * Starts processing a submit: waits for other submits of the user to complete and holds them off until the
+     * current transaction completes. If the lock cannot be taken in time, the submit proceeds unserialized and
+     * relies on the duplicate checks of the creation itself.
+     *
+     * @param submittedToken the submission token of the form, ignored unless issued to this authentication session
+     */
+    public Submission begin(
+            @Nonnull KeycloakSession session,
+            @Nonnull AuthenticationSessionModel authSession,
+            @Nonnull UserModel user,
+            String submittedToken
+    ) {
+        final String submissionToken = submittedToken != null && submittedToken.equals(authSession.getAuthNote(SUBMISSION_TOKEN_NOTE))
+                ? submittedToken
+                : null;
+        final Submission submission = new Submission(authSession, user.getId(), submissionToken, tryLock(user));
+        session.getTransactionManager().enlistAfterCompletion(submission);
+        return submission;
+    }
+
+    private boolean tryLock(UserModel user) {
+        try {
+            if (userLocks.tryLock(user.getId(), LOCK_TIMEOUT)) {
+                return true;
+            }
+            LOGGER.warnf("Timed out waiting for a concurrent organization submit of user %s", user.getId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * A submit in progress. Publishes its outcome and releases the user lock when the transaction completes.
+     */
+    public final class Submission extends AbstractKeycloakTransaction {
+
+        private final AuthenticationSessionModel authSession;
+        private final String userId;
+        private final String submissionToken;
+        private final boolean isLocked;
+        private String createdOrganizationId;
+
+        private Submission(AuthenticationSessionModel authSession, String userId, String submissionToken, boolean isLocked) {
+            this.authSession = authSession;
+            this.userId = userId;
+            this.submissionToken = submissionToken;
+            this.isLocked = isLocked;
+        }
+
+        /**
+         * @return the ID of the organization an earlier submit of the same form has already created, if any
+         */
+        public Optional<String> previouslyCreatedOrganizationId() {
+            if (submissionToken == null) {
+                return Optional.empty();
+            }
+
+            final String createdForToken = authSession.getAuthNote(CREATED_ORGANIZATION_NOTE);
+            if (createdForToken != null && createdForToken.startsWith(submissionToken + ":")) {
+                return Optional.of(createdForToken.substring(submissionToken.length() + 1));
+            }
+            return createdOrganizationIds.get(outcomeKey());
+        }
+
+        /**
+         * Remembers the created organization, so it is replayed for later submits of the same form.
+         */
+        public void recordCreatedOrganization(@Nonnull String organizationId) {
+            if (submissionToken == null) {
+                return;
+            }
+
+            this.createdOrganizationId = organizationId;
+            authSession.setAuthNote(CREATED_ORGANIZATION_NOTE, submissionToken + ":" + organizationId);
+        }
+
+        @Override
+        protected void commitImpl() {
+            try {
+                if (createdOrganizationId != null) {
+                    createdOrganizationIds.put(outcomeKey(), createdOrganizationId);
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        @Override
+        protected void rollbackImpl() {
+            unlock();
+        }
+
+        private void unlock() {
+            if (isLocked) {
+                userLocks.unlock(userId);
+            }
+        }
+
+        private String outcomeKey() {
+            return userId + ":" + submissionToken;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.wingsofovnia.keycloak.organization.membership;
+
+import com.github.wingsofovnia.keycloak.organization.util.BoundedCache;
+import jakarta.annotation.Nonnull;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.provider.ProviderEvent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A per-node, per-realm cache of users known to be a member of at least one organization.
+ * <p>
+ * Only positive answers are cached: a user who is not a member is always looked up in the database. This way
+ * a stale entry (e.g. a user left an organization on another cluster node) can at most postpone this required
+ * action until the entry expires, but never show the form to a user who has already joined an organization.
+ * Entries are invalidated by organization membership events fired on this node and expire after
+ * the configured time-to-live to bound staleness caused by changes made on other nodes.
+ * <p>
+ * Invalidations also bump a per-user version (striped by user ID to keep memory bounded), which a lookup reads
+ * before querying the database and passes to {@link #markMember}, so that a user who left an organization while the
+ * lookup was running is not cached as a member from its outdated answer.
+ */
+public final class OrganizationMembershipCache {
+
+    public static final int MAX_SIZE_PER_REALM = 50_000;
+
+    private static final int VERSION_STRIPES = 1024;
+
+    private final Map<String, BoundedCache<String, Boolean>> realmCaches = new ConcurrentHashMap<>();
+    private final AtomicLongArray userVersions = new AtomicLongArray(VERSION_STRIPES);
+
+    public boolean isKnownMember(@Nonnull RealmModel realm, @Nonnull UserModel user, @Nonnull Duration ttl) {
+        return realmCacheOf(realm.getId(), ttl).get(user.getId()).isPresent();
+    }
+
+    /**
+     * @return the membership version of the user, to be read before looking up the membership in the database
+     */
+    public long versionOf(@Nonnull UserModel user) {
+        return userVersions.get(versionStripeOf(user.getId()));
+    }
+
+    /**
+     * Caches the user as a member, unless the membership of the user has been invalidated since {@code version}
+     * was read.
+     */
+    public void markMember(@Nonnull RealmModel realm, @Nonnull UserModel user, @Nonnull Duration ttl, long version) {
+        final int versionStripe = versionStripeOf(user.getId());
+        if (userVersions.get(versionStripe) != version) {
+            return;
+        }
+
+        final BoundedCache<String, Boolean> realmCache = realmCacheOf(realm.getId(), ttl);
+        realmCache.put(user.getId(), true);
+        // An invalidation may have run between the check and the put, so it is checked again once the entry is visible
+        if (userVersions.get(versionStripe) != version) {
+            realmCache.invalidate(user.getId());
+        }
+    }
+
+    public void invalidate(@Nonnull String userId) {
+        userVersions.incrementAndGet(versionStripeOf(userId));
+        realmCaches.values().forEach(realmCache -> realmCache.invalidate(userId));
+    }
+
+    public void invalidateRealm(@Nonnull String realmId) {
+        realmCaches.remove(realmId);
+    }
+
+    /**
+     * Keeps the cache in sync with membership changes. Intended to be registered
+     * with {@link org.keycloak.models.KeycloakSessionFactory#register}.
+     */
+    public void onEvent(ProviderEvent event) {
+        if (event instanceof OrganizationModel.OrganizationMemberJoinEvent joinEvent) {
+            invalidate(joinEvent.getUser().getId());
+        } else if (event instanceof OrganizationModel.OrganizationMemberLeaveEvent leaveEvent) {
+            invalidate(leaveEvent.getUser().getId());
+        } else if (event instanceof UserModel.UserRemovedEvent userRemovedEvent) {
+            invalidate(userRemovedEvent.getUser().getId());
+        } else if (event instanceof RealmModel.RealmRemovedEvent realmRemovedEvent) {
+            invalidateRealm(realmRemovedEvent.getRealm().getId());
+        }
+    }
+
+    private static int versionStripeOf(String userId) {
+        final int hash = userId.hashCode();
+        // Spread the higher bits, as only the lower ones select the stripe
+        return (hash ^ (hash >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    private BoundedCache<String, Boolean> realmCacheOf(String realmId, Duration ttl) {
+        return realmCaches.compute(realmId, (id, existing) -> {
+            // Recreate the cache if the ttl has been reconfigured
+            if (existing == null || !existing.ttl().equals(ttl)) {
+                return new BoundedCache<>(MAX_SIZE_PER_REALM, ttl);
+            }
+            return existing;
+        });
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.wingsofovnia.keycloak.organization.membership;
+
+import com.github.wingsofovnia.keycloak.organization.metrics.CreateOrganizationMetrics;
+import com.github.wingsofovnia.keycloak.organization.util.CircuitBreaker;
+import jakarta.annotation.Nonnull;
+import org.jboss.logging.Logger;
+import org.keycloak.connections.jpa.JpaConnectionProvider;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.organization.OrganizationProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getMembershipCacheTtl;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getTriggerBreakerOpenDuration;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getTriggerFailureThreshold;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getTriggerTimeBudget;
+
+/**
+ * Looks up if a user is a member of any organization when deciding on this required action at login.
+ * <p>
+ * Known members are answered from {@link OrganizationMembershipCache}. Database lookups are guarded by a per-realm
+ * {@link CircuitBreaker}: lookups that fail or exceed the configured time budget count as failures, and once the
+ * breaker trips, lookups are skipped and reported as unknown, so logins are not stalled by a degraded database.
+ * The lookup is a single read-only {@linkplain OrganizationMemberships#hasOrganization query} on the request session
+ * with the time budget as its query timeout, so a slow database costs a login at most the budget and a timed out
+ * query does not mark the login transaction rollback-only. Where the database does not enforce the timeout, the
+ * budget is still enforced by tripping the breaker for subsequent logins.
+ */
+public final class OrganizationMembershipLookup {
+
+    private static final Logger LOGGER = Logger.getLogger(OrganizationMembershipLookup.class);
+
+    private final OrganizationMembershipCache membershipCache;
+    private final CreateOrganizationMetrics metrics;
+    private final Map<String, CircuitBreaker> realmBreakers = new ConcurrentHashMap<>();
+
+    public OrganizationMembershipLookup(
+            @Nonnull OrganizationMembershipCache membershipCache,
+            @Nonnull CreateOrganizationMetrics metrics
+    ) {
+        this.membershipCache = membershipCache;
+        this.metrics = metrics;
+        metrics.bindMembershipBreakerStates(this::breakerStates);
+    }
+
+    /**
+     * @return whether the user is a member of any organization, or empty if it is not known because the database
+     * lookup has failed or has been skipped by the open circuit breaker
+     */
+    public Optional<Boolean> hasOrganization(@Nonnull KeycloakSession session, @Nonnull UserModel user) {
+        final RealmModel realm = session.getContext().getRealm();
+
+        final Duration cacheTtl = getMembershipCacheTtl(session);
+        final boolean isCacheEnabled = !cacheTtl.isZero();
+        if (isCacheEnabled && membershipCache.isKnownMember(realm, user, cacheTtl)) {
+            return Optional.of(true);
+        }
+
+        final CircuitBreaker breaker = breakerOf(session, realm);
+        if (!breaker.tryAcquire()) {
+            metrics.membershipLookupShortCircuited();
+            return Optional.empty();
+        }
+
+        // Read before the lookup, so a leave during the lookup keeps its possibly outdated answer out of the cache
+        final long membershipVersion = membershipCache.versionOf(user);
+        final Duration budget = getTriggerTimeBudget(session);
+        final long startedAt = System.nanoTime();
+        final boolean hasOrganization;
+        try {
+            final JpaConnectionProvider jpaConnectionProvider = session.getProvider(JpaConnectionProvider.class);
+            if (jpaConnectionProvider == null) {
+                final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
+                hasOrganization = organizationProvider.getByMember(user).findAny().isPresent();
+            } else {
+                hasOrganization = OrganizationMemberships.hasOrganization(jpaConnectionProvider.getEntityManager(),
+                        realm.getId(), user.getId(), budget);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debugf(e, "Failed to look up organizations of user %s in realm %s", user.getId(), realm.getName());
+            metrics.membershipLookupFailed();
+            onBreakerFailure(breaker, realm);
+            return Optional.empty();
+        }
+
+        final Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+        if (!budget.isZero() && elapsed.compareTo(budget) > 0) {
+            metrics.membershipLookupOverBudget();
+            onBreakerFailure(breaker, realm);
+        } else {
+            breaker.onSuccess();
+        }
+
+        if (hasOrganization && isCacheEnabled) {
+            membershipCache.markMember(realm, user, cacheTtl, membershipVersion);
+        }
+        return Optional.of(hasOrganization);
+    }
+
+    public void invalidateRealm(@Nonnull String realmId) {
+        realmBreakers.remove(realmId);
+    }
+
+    private Map<String, String> breakerStates() {
+        return realmBreakers.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().state().name()));
+    }
+
+    private void onBreakerFailure(CircuitBreaker breaker, RealmModel realm) {
+        if (breaker.onFailure()) {
+            metrics.membershipBreakerTripped();
+            LOGGER.warnf("Organization membership lookups in realm %s are failing or slow, skipping them for %d s",
+                    realm.getName(), breaker.openDuration().toSeconds());
+        }
+    }
+
+    private CircuitBreaker breakerOf(KeycloakSession session, RealmModel realm) {
+        final int failureThreshold = getTriggerFailureThreshold(session);
+        final Duration openDuration = getTriggerBreakerOpenDuration(session);
+        return realmBreakers.compute(realm.getId(), (id, existing) -> {
+            // Recreate the breaker if it has been reconfigured
+            if (existing == null
+                    || existing.failureThreshold() != failureThreshold
+                    || !existing.openDuration().equals(openDuration)) {
+                return new CircuitBreaker(failureThreshold, openDuration);
+            }
+            return existing;
+        });
+    }
+}
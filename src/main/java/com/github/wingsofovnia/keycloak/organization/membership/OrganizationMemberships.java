@@ -0,0 +1,81 @@
+package com.github.wingsofovnia.keycloak.organization.membership;
+
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.TypedQuery;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Read-only membership queries answered from the organization and group membership tables directly, without loading
+ * organizations or users into the persistence context.
+ * <p>
+ * Queries do not flush the session, so pending changes of the request cannot fail them, and they are marked
+ * read-only. A query that runs into its timeout fails with {@link jakarta.persistence.QueryTimeoutException}, which
+ * does not mark the transaction rollback-only, so the caller can treat the membership as unknown and carry on.
+ */
+public final class OrganizationMemberships {
+
+    private static final String READ_ONLY_HINT = "org.hibernate.readOnly";
+    private static final String TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+    private OrganizationMemberships() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param timeout time the database may spend on the query, zero for no limit
+     * @return whether the user is a member of any organization of the realm
+     */
+    public static boolean hasOrganization(
+            @Nonnull EntityManager entityManager,
+            @Nonnull String realmId,
+            @Nonnull String userId,
+            @Nonnull Duration timeout
+    ) {
+        final TypedQuery<String> query = entityManager
+                .createQuery("""
+                        select o.id from UserGroupMembershipEntity m, OrganizationEntity o
+                        where o.realmId = :realmId and o.groupId = m.groupId and m.user.id = :userId
+                        """, String.class)
+                .setParameter("realmId", realmId)
+                .setParameter("userId", userId)
+                .setMaxResults(1);
+        if (!timeout.isZero()) {
+            query.setHint(TIMEOUT_HINT, timeout.toMillis());
+        }
+        return !readOnly(query).getResultList().isEmpty();
+    }
+
+    /**
+     * @return IDs of the given users who are a member of any organization of the realm
+     */
+    public static Set<String> membersAmong(
+            @Nonnull EntityManager entityManager,
+            @Nonnull String realmId,
+            @Nonnull Collection<String> userIds
+    ) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+
+        final TypedQuery<String> query = entityManager
+                .createQuery("""
+                        select distinct m.user.id from UserGroupMembershipEntity m, OrganizationEntity o
+                        where o.realmId = :realmId and o.groupId = m.groupId and m.user.id in :userIds
+                        """, String.class)
+                .setParameter("realmId", realmId)
+                .setParameter("userIds", userIds);
+        return new HashSet<>(readOnly(query).getResultList());
+    }
+
+    private static <T> TypedQuery<T> readOnly(TypedQuery<T> query) {
+        return query
+                .setFlushMode(FlushModeType.COMMIT)
+                .setHint(READ_ONLY_HINT, true);
+    }
+}
@@ -0,0 +1,168 @@
+package com.github.wingsofovnia.keycloak.organization.metrics;
+
+import org.jboss.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Per-node counters of this extension, exposed as a JMX MXBean under {@link #OBJECT_NAME}.
+ */
+public final class CreateOrganizationMetrics implements CreateOrganizationMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.github.wingsofovnia.keycloak.organization:type=CreateOrganizationRequiredAction";
+
+    private static final Logger LOGGER = Logger.getLogger(CreateOrganizationMetrics.class);
+
+    private final LongAdder requiredActionWrites = new LongAdder();
+    private final LongAdder requiredActionWritesAvoided = new LongAdder();
+    private final LongAdder membershipLookupFailures = new LongAdder();
+    private final LongAdder membershipLookupsOverBudget = new LongAdder();
+    private final LongAdder membershipLookupsShortCircuited = new LongAdder();
+    private final LongAdder membershipBreakerTrips = new LongAdder();
+    private volatile Supplier<Map<String, String>> membershipBreakerStates = Map::of;
+    private final LongAdder organizationCreationsThrottled = new LongAdder();
+    private final LongAdder webhookEventsDelivered = new LongAdder();
+    private final LongAdder webhookEventsFailed = new LongAdder();
+    private final LongAdder webhookEventsRejected = new LongAdder();
+    private volatile IntSupplier webhookQueueSize = () -> 0;
+
+    public void requiredActionWritten() {
+        requiredActionWrites.increment();
+    }
+
+    public void requiredActionWriteAvoided() {
+        requiredActionWritesAvoided.increment();
+    }
+
+    public void membershipLookupFailed() {
+        membershipLookupFailures.increment();
+    }
+
+    public void membershipLookupOverBudget() {
+        membershipLookupsOverBudget.increment();
+    }
+
+    public void membershipLookupShortCircuited() {
+        membershipLookupsShortCircuited.increment();
+    }
+
+    public void membershipBreakerTripped() {
+        membershipBreakerTrips.increment();
+    }
+
+    public void bindMembershipBreakerStates(Supplier<Map<String, String>> membershipBreakerStates) {
+        this.membershipBreakerStates = membershipBreakerStates;
+    }
+
+    public void organizationCreationThrottled() {
+        organizationCreationsThrottled.increment();
+    }
+
+    public void webhookEventsDelivered(int events) {
+        webhookEventsDelivered.add(events);
+    }
+
+    public void webhookEventsFailed(int events) {
+        webhookEventsFailed.add(events);
+    }
+
+    public void webhookEventRejected() {
+        webhookEventsRejected.increment();
+    }
+
+    public void bindWebhookQueueSize(IntSupplier webhookQueueSize) {
+        this.webhookQueueSize = webhookQueueSize;
+    }
+
+    @Override
+    public long getRequiredActionWrites() {
+        return requiredActionWrites.sum();
+    }
+
+    @Override
+    public long getRequiredActionWritesAvoided() {
+        return requiredActionWritesAvoided.sum();
+    }
+
+    @Override
+    public long getMembershipLookupFailures() {
+        return membershipLookupFailures.sum();
+    }
+
+    @Override
+    public long getMembershipLookupsOverBudget() {
+        return membershipLookupsOverBudget.sum();
+    }
+
+    @Override
+    public long getMembershipLookupsShortCircuited() {
+        return membershipLookupsShortCircuited.sum();
+    }
+
+    @Override
+    public long getMembershipBreakerTrips() {
+        return membershipBreakerTrips.sum();
+    }
+
+    @Override
+    public Map<String, String> getMembershipBreakerStates() {
+        return Map.copyOf(membershipBreakerStates.get());
+    }
+
+    @Override
+    public long getOrganizationCreationsThrottled() {
+        return organizationCreationsThrottled.sum();
+    }
+
+    @Override
+    public long getWebhookEventsDelivered() {
+        return webhookEventsDelivered.sum();
+    }
+
+    @Override
+    public long getWebhookEventsFailed() {
+        return webhookEventsFailed.sum();
+    }
+
+    @Override
+    public long getWebhookEventsRejected() {
+        return webhookEventsRejected.sum();
+    }
+
+    @Override
+    public int getWebhookQueueSize() {
+        return webhookQueueSize.getAsInt();
+    }
+
+    public void register() {
+        try {
+            final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(this, objectName);
+        } catch (JMException e) {
+            LOGGER.warnf(e, "Failed to register %s MXBean, metrics will not be exposed", OBJECT_NAME);
+        }
+    }
+
+    public void unregister() {
+        try {
+            final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            LOGGER.debugf(e, "Failed to unregister %s MXBean", OBJECT_NAME);
+        }
+    }
+}
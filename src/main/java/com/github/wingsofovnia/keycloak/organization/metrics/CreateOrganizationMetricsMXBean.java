@@ -0,0 +1,45 @@
+package com.github.wingsofovnia.keycloak.organization.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing {@link CreateOrganizationMetrics} over JMX.
+ */
+public interface CreateOrganizationMetricsMXBean {
+
+    long getRequiredActionWrites();
+
+    long getRequiredActionWritesAvoided();
+
+    long getMembershipLookupFailures();
+
+    long getMembershipLookupsOverBudget();
+
+    long getMembershipLookupsShortCircuited();
+
+    long getMembershipBreakerTrips();
+
+    /**
+     * @return circuit breaker state of organization membership lookups by realm ID
+     */
+    Map<String, String> getMembershipBreakerStates();
+
+    /**
+     * @return organization creations rejected by the configured creation rate limits
+     */
+    long getOrganizationCreationsThrottled();
+
+    long getWebhookEventsDelivered();
+
+    /**
+     * @return events not delivered after retries, they are relayed again from the outbox
+     */
+    long getWebhookEventsFailed();
+
+    /**
+     * @return events not queued for delivery because the queue was full, they are relayed again from the outbox
+     */
+    long getWebhookEventsRejected();
+
+    int getWebhookQueueSize();
+}
@@ -0,0 +1,130 @@
+package com.github.wingsofovnia.keycloak.organization.outbox;
+
+import com.github.wingsofovnia.keycloak.organization.webhook.WebhookEvent;
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.EntityManager;
+import org.jboss.logging.Logger;
+import org.keycloak.connections.jpa.JpaConnectionProvider;
+import org.keycloak.models.KeycloakSession;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Transactional outbox of events for external systems. Events are written in the transaction of the change they
+ * announce, so they exist if and only if the change is committed, and survive crashes until delivered.
+ * <p>
+ * Delivery is at least once: an event is leased for {@link #DELIVERY_LEASE} before every delivery attempt and
+ * deleted once delivered. If the node fails or stops before that, the lease expires and the event is leased again
+ * by {@link OrganizationOutboxRelayTask}. Receivers deduplicate events by their ID. Events that could not be delivered
+ * in {@link #MAX_ATTEMPTS} leases are dropped.
+ */
+public final class OrganizationOutbox {
+
+    public static final Duration DELIVERY_LEASE = Duration.ofMinutes(5);
+    public static final int MAX_ATTEMPTS = 20;
+
+    private static final Logger LOGGER = Logger.getLogger(OrganizationOutbox.class);
+
+    private OrganizationOutbox() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Adds the event within the session transaction, leased right away for the first delivery attempt after commit.
+     */
+    public static void add(@Nonnull KeycloakSession session, @Nonnull String type, @Nonnull WebhookEvent event) {
+        final long now = System.currentTimeMillis();
+        final OrganizationOutboxEventEntity entity = new OrganizationOutboxEventEntity();
+        entity.setId(event.id());
+        entity.setRealmId(session.getContext().getRealm().getId());
+        entity.setType(type);
+        entity.setPayload(event.json());
+        entity.setCreatedTimestamp(now);
+        entity.setNextAttemptTimestamp(now + DELIVERY_LEASE.toMillis());
+        entity.setAttempts(1);
+        entityManagerOf(session).persist(entity);
+    }
+
+    /**
+     * Leases up to the given number of events that are due, oldest first.
+     */
+    @Nonnull
+    public static List<WebhookEvent> leaseDue(@Nonnull KeycloakSession session, int maxEvents) {
+        final long now = System.currentTimeMillis();
+        final List<OrganizationOutboxEventEntity> dueEvents = entityManagerOf(session)
+                .createNamedQuery(OrganizationOutboxEventEntity.FIND_DUE, OrganizationOutboxEventEntity.class)
+                .setParameter("now", now)
+                .setMaxResults(maxEvents)
+                .getResultList();
+
+        final List<WebhookEvent> leasedEvents = new ArrayList<>(dueEvents.size());
+        final List<String> expiredEventIds = new ArrayList<>();
+        for (OrganizationOutboxEventEntity dueEvent : dueEvents) {
+            if (lease(dueEvent, now)) {
+                leasedEvents.add(new WebhookEvent(dueEvent.getId(), dueEvent.getPayload()));
+            } else {
+                expiredEventIds.add(dueEvent.getId());
+            }
+        }
+
+        if (!expiredEventIds.isEmpty()) {
+            LOGGER.errorf("Dropping %d outbox events not delivered in %d attempts: %s", expiredEventIds.size(), MAX_ATTEMPTS, expiredEventIds);
+            remove(session, expiredEventIds);
+        }
+        return leasedEvents;
+    }
+
+    /**
+     * Ends the lease of events that were not attempted, e.g. as the delivery queue was full, so they are due again
+     * without counting as an attempt.
+     */
+    public static void release(@Nonnull KeycloakSession session, @Nonnull Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+
+        final long now = System.currentTimeMillis();
+        final EntityManager entityManager = entityManagerOf(session);
+        for (String eventId : eventIds) {
+            final OrganizationOutboxEventEntity event = entityManager.find(OrganizationOutboxEventEntity.class, eventId);
+            if (event != null) {
+                release(event, now);
+            }
+        }
+    }
+
+    public static void remove(@Nonnull KeycloakSession session, @Nonnull Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+
+        entityManagerOf(session)
+                .createNamedQuery(OrganizationOutboxEventEntity.DELETE_BY_IDS)
+                .setParameter("ids", eventIds)
+                .executeUpdate();
+    }
+
+    /**
+     * @return {@code false} if the event is out of attempts and is to be dropped rather than leased
+     */
+    static boolean lease(OrganizationOutboxEventEntity event, long now) {
+        if (event.getAttempts() >= MAX_ATTEMPTS) {
+            return false;
+        }
+        event.setAttempts(event.getAttempts() + 1);
+        event.setNextAttemptTimestamp(now + DELIVERY_LEASE.toMillis());
+        return true;
+    }
+
+    static void release(OrganizationOutboxEventEntity event, long now) {
+        event.setAttempts(Math.max(event.getAttempts() - 1, 0));
+        event.setNextAttemptTimestamp(now);
+    }
+
+    private static EntityManager entityManagerOf(KeycloakSession session) {
+        return session.getProvider(JpaConnectionProvider.class).getEntityManager();
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.wingsofovnia.keycloak.organization.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.NamedQueries;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.Table;
+
+/**
+ * An event waiting in the outbox to be delivered. Written in the transaction that creates the organization and
+ * deleted once delivered, see {@link OrganizationOutbox}.
+ */
+@Entity
+@Table(name = "ORG_RA_OUTBOX_EVENT")
+@NamedQueries({
+        @NamedQuery(
+                name = OrganizationOutboxEventEntity.FIND_DUE,
+                query = "select e from OrganizationOutboxEventEntity e where e.nextAttemptTimestamp <= :now order by e.nextAttemptTimestamp"
+        ),
+        @NamedQuery(
+                name = OrganizationOutboxEventEntity.DELETE_BY_IDS,
+                query = "delete from OrganizationOutboxEventEntity e where e.id in :ids"
+        )
+})
+public class OrganizationOutboxEventEntity {
+
+    static final String FIND_DUE = "OrganizationOutboxEventEntity.findDue";
+    static final String DELETE_BY_IDS = "OrganizationOutboxEventEntity.deleteByIds";
+
+    /**
+     * Also the deduplication key of the event.
+     */
+    @Id
+    @Column(name = "ID", length = 36)
+    private String id;
+
+    @Column(name = "REALM_ID", length = 36, nullable = false)
+    private String realmId;
+
+    @Column(name = "TYPE", length = 64, nullable = false)
+    private String type;
+
+    @Column(name = "PAYLOAD", length = 4000, nullable = false)
+    private String payload;
+
+    @Column(name = "CREATED_TIMESTAMP", nullable = false)
+    private long createdTimestamp;
+
+    @Column(name = "NEXT_ATTEMPT_TIMESTAMP", nullable = false)
+    private long nextAttemptTimestamp;
+
+    @Column(name = "ATTEMPTS", nullable = false)
+    private int attempts;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getRealmId() {
+        return realmId;
+    }
+
+    public void setRealmId(String realmId) {
+        this.realmId = realmId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public long getCreatedTimestamp() {
+        return createdTimestamp;
+    }
+
+    public void setCreatedTimestamp(long createdTimestamp) {
+        this.createdTimestamp = createdTimestamp;
+    }
+
+    public long getNextAttemptTimestamp() {
+        return nextAttemptTimestamp;
+    }
+
+    public void setNextAttemptTimestamp(long nextAttemptTimestamp) {
+        this.nextAttemptTimestamp = nextAttemptTimestamp;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.wingsofovnia.keycloak.organization.outbox;
+
+import org.keycloak.connections.jpa.entityprovider.JpaEntityProvider;
+
+import java.util.List;
+
+/**
+ * Registers {@link OrganizationOutboxEventEntity} with the Keycloak persistence unit and its Liquibase changelog.
+ */
+public class OrganizationOutboxJpaEntityProvider implements JpaEntityProvider {
+
+    public static final String CHANGELOG_LOCATION = "META-INF/create-organization-outbox-changelog.xml";
+
+    @Override
+    public List<Class<?>> getEntities() {
+        return List.of(OrganizationOutboxEventEntity.class);
+    }
+
+    @Override
+    public String getChangelogLocation() {
+        return CHANGELOG_LOCATION;
+    }
+
+    @Override
+    public String getFactoryId() {
+        return OrganizationOutboxJpaEntityProviderFactory.PROVIDER_ID;
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
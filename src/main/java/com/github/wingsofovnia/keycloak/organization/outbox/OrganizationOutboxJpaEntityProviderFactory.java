@@ -0,0 +1,42 @@
+package com.github.wingsofovnia.keycloak.organization.outbox;
+
+import org.keycloak.Config;
+import org.keycloak.connections.jpa.entityprovider.JpaEntityProvider;
+import org.keycloak.connections.jpa.entityprovider.JpaEntityProviderFactory;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+
+/**
+ * Registers {@link OrganizationOutboxJpaEntityProvider}.
+ */
+public class OrganizationOutboxJpaEntityProviderFactory implements JpaEntityProviderFactory {
+
+    public static final String PROVIDER_ID = "create-organization-outbox";
+
+    private static final OrganizationOutboxJpaEntityProvider PROVIDER = new OrganizationOutboxJpaEntityProvider();
+
+    @Override
+    public JpaEntityProvider create(KeycloakSession session) {
+        return PROVIDER;
+    }
+
+    @Override
+    public void init(Config.Scope config) {
+
+    }
+
+    @Override
+    public void postInit(KeycloakSessionFactory factory) {
+
+    }
+
+    @Override
+    public void close() {
+
+    }
+
+    @Override
+    public String getId() {
+        return PROVIDER_ID;
+    }
+}
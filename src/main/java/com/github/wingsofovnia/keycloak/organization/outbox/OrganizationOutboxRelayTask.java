@@ -0,0 +1,53 @@
+package com.github.wingsofovnia.keycloak.organization.outbox;
+
+import com.github.wingsofovnia.keycloak.organization.webhook.WebhookDispatcher;
+import com.github.wingsofovnia.keycloak.organization.webhook.WebhookEvent;
+import jakarta.annotation.Nonnull;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.utils.KeycloakModelUtils;
+import org.keycloak.timer.ScheduledTask;
+
+import java.util.List;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredAction.PROVIDER_ID;
+
+/**
+ * Hands due events of the {@link OrganizationOutbox} to the {@link WebhookDispatcher}: events whose first delivery
+ * failed, was rejected, or was lost with the node that created them.
+ * <p>
+ * Events are leased in batches, each in its own transaction, for as long as the dispatcher queue has room for a
+ * whole batch, so a registration spike is drained at the pace of the endpoint rather than all at once.
+ */
+public class OrganizationOutboxRelayTask implements ScheduledTask {
+
+    public static final String TASK_NAME = PROVIDER_ID + "-outbox-relay";
+
+    private final WebhookDispatcher dispatcher;
+    private final int batchSize;
+
+    public OrganizationOutboxRelayTask(@Nonnull WebhookDispatcher dispatcher, int batchSize) {
+        this.dispatcher = dispatcher;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(KeycloakSession session) {
+        final KeycloakSessionFactory sessionFactory = session.getKeycloakSessionFactory();
+
+        while (dispatcher.remainingCapacity() >= batchSize) {
+            final List<WebhookEvent> leasedEvents = KeycloakModelUtils.runJobInTransactionWithResult(sessionFactory,
+                    batchSession -> OrganizationOutbox.leaseDue(batchSession, batchSize));
+            leasedEvents.forEach(dispatcher::offer);
+
+            if (leasedEvents.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public String getTaskName() {
+        return TASK_NAME;
+    }
+}
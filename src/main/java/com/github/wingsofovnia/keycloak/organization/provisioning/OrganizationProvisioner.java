@@ -0,0 +1,141 @@
+package com.github.wingsofovnia.keycloak.organization.provisioning;
+
+import jakarta.annotation.Nonnull;
+import org.jboss.logging.Logger;
+import org.keycloak.models.ClientModel;
+import org.keycloak.models.GroupModel;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.ModelException;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.RoleModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.models.utils.KeycloakModelUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getProvisioningTemplate;
+
+/**
+ * Applies the configured {@linkplain ProvisioningStep provisioning template} to a newly created organization and its
+ * creator within the session transaction, so defaults are set up together with the organization, or not at all.
+ * Organization attributes of all steps are written at once.
+ * <p>
+ * Invalid template lines are skipped with a warning rather than failing signups for a configuration mistake.
+ */
+public final class OrganizationProvisioner {
+
+    private static final Logger LOGGER = Logger.getLogger(OrganizationProvisioner.class);
+
+    private static final Pattern SAFE_ALIAS_PATTERN = Pattern.compile("[a-z0-9_]+");
+
+    public void provision(@Nonnull KeycloakSession session, @Nonnull OrganizationModel organization, @Nonnull UserModel user) {
+        final List<ProvisioningStep> steps = stepsOf(getProvisioningTemplate(session));
+        if (steps.isEmpty()) {
+            return;
+        }
+
+        final Map<String, String> variables = new HashMap<>();
+        variables.put(ProvisioningStep.ORGANIZATION_ID, organization.getId());
+        variables.put(ProvisioningStep.ORGANIZATION_NAME, organization.getName());
+        variables.put(ProvisioningStep.ORGANIZATION_ALIAS, organization.getAlias());
+        variables.put(ProvisioningStep.USER_ID, user.getId());
+        variables.put(ProvisioningStep.USER_USERNAME, user.getUsername());
+        variables.put(ProvisioningStep.USER_EMAIL, user.getEmail());
+
+        // Group paths only take the alias, which must not be able to leave the group it is placed in
+        final String alias = organization.getAlias();
+        final Map<String, String> groupVariables = alias != null && SAFE_ALIAS_PATTERN.matcher(alias).matches()
+                ? Map.of(ProvisioningStep.ORGANIZATION_ALIAS, alias)
+                : Map.of();
+
+        final RealmModel realm = session.getContext().getRealm();
+        final Map<String, List<String>> attributes = new LinkedHashMap<>();
+        for (ProvisioningStep step : steps) {
+            if (step instanceof ProvisioningStep.SetAttribute setAttribute) {
+                attributes
+                        .computeIfAbsent(setAttribute.name(), name -> new ArrayList<>())
+                        .add(ProvisioningStep.resolve(setAttribute.value(), variables));
+            } else if (step instanceof ProvisioningStep.JoinGroup joinGroup) {
+                if (joinGroup.path().contains("${") && groupVariables.isEmpty()) {
+                    throw new ModelException("Cannot provision group " + joinGroup.path() + " for organization alias '" + alias + "'");
+                }
+                final String path = ProvisioningStep.resolve(joinGroup.path(), groupVariables);
+                final GroupModel group = groupOf(session, realm, path);
+                if (group == null) {
+                    LOGGER.warnf("Skipping provisioning step %s: group path '%s' is empty", step, path);
+                    continue;
+                }
+                user.joinGroup(group);
+            } else if (step instanceof ProvisioningStep.GrantRole grantRole) {
+                user.grantRole(roleOf(realm, grantRole.role()));
+            }
+        }
+
+        if (!attributes.isEmpty()) {
+            final Map<String, List<String>> organizationAttributes = new HashMap<>(organization.getAttributes());
+            attributes.forEach((name, values) -> organizationAttributes.merge(name, values, (existing, added) -> {
+                final List<String> merged = new ArrayList<>(existing);
+                merged.addAll(added);
+                return merged;
+            }));
+            organization.setAttributes(organizationAttributes);
+        }
+    }
+
+    private static List<ProvisioningStep> stepsOf(List<String> template) {
+        final List<ProvisioningStep> steps = new ArrayList<>(template.size());
+        for (String line : template) {
+            try {
+                steps.add(ProvisioningStep.parse(line));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warnf("Skipping provisioning step: %s", e.getMessage());
+            }
+        }
+        return steps;
+    }
+
+    private static GroupModel groupOf(KeycloakSession session, RealmModel realm, String path) {
+        if (path.replace("/", "").isBlank()) {
+            return null;
+        }
+
+        final GroupModel existing = KeycloakModelUtils.findGroupByPath(session, realm, path);
+        if (existing != null) {
+            return existing;
+        }
+
+        GroupModel group = null;
+        final StringBuilder groupPath = new StringBuilder();
+        for (String name : path.split("/")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            groupPath.append('/').append(name);
+            final GroupModel subgroup = KeycloakModelUtils.findGroupByPath(session, realm, groupPath.toString());
+            group = subgroup != null ? subgroup : session.groups().createGroup(realm, name, group);
+        }
+        return group;
+    }
+
+    private static RoleModel roleOf(RealmModel realm, String role) {
+        final RoleModel existing = KeycloakModelUtils.getRoleFromString(realm, role);
+        if (existing != null) {
+            return existing;
+        }
+
+        final int separator = role.lastIndexOf('.');
+        if (separator > 0) {
+            final ClientModel client = realm.getClientByClientId(role.substring(0, separator));
+            if (client != null) {
+                return client.addRole(role.substring(separator + 1));
+            }
+        }
+        return realm.addRole(role);
+    }
+}
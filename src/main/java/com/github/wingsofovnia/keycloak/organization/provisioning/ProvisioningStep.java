@@ -0,0 +1,132 @@
+package com.github.wingsofovnia.keycloak.organization.provisioning;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A step of the provisioning template applied to every organization created by the required action, one per line:
+ * <pre>
+ * attribute:plan=free
+ * group:/organizations/${organization.alias}/admins
+ * role:org-admin
+ * role:billing-app.viewer
+ * </pre>
+ * Attribute values may refer to {@link #VARIABLES} as {@code ${variable}}. Names, email addresses and usernames are
+ * chosen by users, so they must not decide which roles or groups a user gets: role steps take no variables, and group
+ * steps only take {@code ${organization.alias}} (letters, digits and underscores) below a fixed parent group.
+ */
+public sealed interface ProvisioningStep {
+
+    String ORGANIZATION_ID = "organization.id";
+    String ORGANIZATION_NAME = "organization.name";
+    String ORGANIZATION_ALIAS = "organization.alias";
+    String USER_ID = "user.id";
+    String USER_USERNAME = "user.username";
+    String USER_EMAIL = "user.email";
+    Set<String> VARIABLES = Set.of(ORGANIZATION_ID, ORGANIZATION_NAME, ORGANIZATION_ALIAS, USER_ID, USER_USERNAME, USER_EMAIL);
+
+    Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{([^}]*)}");
+
+    /**
+     * Sets an organization attribute, adding a value if the same attribute is set by several steps.
+     */
+    record SetAttribute(@Nonnull String name, @Nonnull String value) implements ProvisioningStep {
+    }
+
+    /**
+     * Adds the user to a realm group, creating the group and its parents if missing. The path may contain
+     * {@code ${organization.alias}} below its first group only.
+     */
+    record JoinGroup(@Nonnull String path) implements ProvisioningStep {
+    }
+
+    /**
+     * Grants the user a realm role or a client role ({@code client-id.role}), creating the role if missing.
+     * The role is fixed by the template.
+     */
+    record GrantRole(@Nonnull String role) implements ProvisioningStep {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the line is not a valid step
+     */
+    @Nonnull
+    static ProvisioningStep parse(@Nonnull String line) {
+        final int separator = line.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Provisioning step '" + line + "' is invalid: missing step type");
+        }
+
+        final String type = line.substring(0, separator).trim();
+        final String definition = line.substring(separator + 1).trim();
+        checkVariables(line, definition);
+        return switch (type) {
+            case "attribute" -> {
+                final int equals = definition.indexOf('=');
+                if (equals <= 0 || definition.substring(0, equals).isBlank()) {
+                    throw new IllegalArgumentException("Provisioning step '" + line + "' is invalid: expected attribute:name=value");
+                }
+                final String name = definition.substring(0, equals).trim();
+                if (VARIABLE_PATTERN.matcher(name).find()) {
+                    throw new IllegalArgumentException("Provisioning step '" + line + "' is invalid: attribute names cannot use variables");
+                }
+                yield new SetAttribute(name, definition.substring(equals + 1).trim());
+            }
+            case "group" -> {
+                if (!definition.startsWith("/") || definition.length() < 2) {
+                    throw new IllegalArgumentException("Provisioning step '" + line + "' is invalid: expected group:/path");
+                }
+                final Matcher matcher = VARIABLE_PATTERN.matcher(definition);
+                if (matcher.find()) {
+                    final int parentEnd = definition.indexOf('/', 1);
+                    if (parentEnd < 0 || matcher.start() <= parentEnd) {
+                        throw new IllegalArgumentException("Provisioning step '" + line + "' is invalid: variables must be below a fixed parent group");
+                    }
+                    do {
+                        if (!ORGANIZATION_ALIAS.equals(matcher.group(1).trim())) {
+                            throw new IllegalArgumentException("Provisioning step '" + line + "' is invalid: group paths can only use ${" + ORGANIZATION_ALIAS + "}");
+                        }
+                    } while (matcher.find());
+                }
+                yield new JoinGroup(definition);
+            }
+            case "role" -> {
+                if (definition.isEmpty()) {
+                    throw new IllegalArgumentException("Provisioning step '" + line + "' is invalid: expected role:name");
+                }
+                if (VARIABLE_PATTERN.matcher(definition).find()) {
+                    throw new IllegalArgumentException("Provisioning step '" + line + "' is invalid: roles cannot use variables");
+                }
+                yield new GrantRole(definition);
+            }
+            default -> throw new IllegalArgumentException("Provisioning step '" + line + "' is invalid: unknown type '" + type + "'");
+        };
+    }
+
+    /**
+     * Replaces {@code ${variable}} references, variables without a value are replaced by an empty string.
+     */
+    @Nonnull
+    static String resolve(@Nonnull String value, @Nonnull Map<String, String> variables) {
+        final Matcher matcher = VARIABLE_PATTERN.matcher(value);
+        final StringBuilder resolved = new StringBuilder(value.length());
+        while (matcher.find()) {
+            final String variableValue = variables.get(matcher.group(1).trim());
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(variableValue == null ? "" : variableValue));
+        }
+        return matcher.appendTail(resolved).toString();
+    }
+
+    private static void checkVariables(String line, String definition) {
+        final Matcher matcher = VARIABLE_PATTERN.matcher(definition);
+        while (matcher.find()) {
+            if (!VARIABLES.contains(matcher.group(1).trim())) {
+                throw new IllegalArgumentException("Provisioning step '" + line + "' is invalid: unknown variable '" + matcher.group(1) + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.github.wingsofovnia.keycloak.organization.realm;
+
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreator;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationSearchIndex;
+import com.github.wingsofovnia.keycloak.organization.util.BoundedCache;
+import com.github.wingsofovnia.keycloak.organization.util.TokenBucket;
+import jakarta.annotation.Nonnull;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ForbiddenException;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.keycloak.models.ClientModel;
+import org.keycloak.models.Constants;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.RequiredActionProviderModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.organization.OrganizationProvider;
+import org.keycloak.services.managers.AuthenticationSessionManager;
+import org.keycloak.sessions.AuthenticationSessionModel;
+import org.keycloak.sessions.RootAuthenticationSessionModel;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredAction.PROVIDER_ID;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isJoinRequestEnabled;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isNameTransliterationEnabled;
+import static com.github.wingsofovnia.keycloak.organization.realm.CreateOrganizationRealmResourceProviderFactory.RATE_LIMIT_CAPACITY;
+import static com.github.wingsofovnia.keycloak.organization.realm.CreateOrganizationRealmResourceProviderFactory.RATE_LIMIT_REFILL_PERIOD;
+import static com.github.wingsofovnia.keycloak.organization.util.OrganizationNames.normalizedNameOf;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.organizationSlugOf;
+
+/**
+ * Endpoints backing the organization creation form, available under {@code /realms/{realm}/create-organization}
+ * while the required action is enabled in the realm. They are called from the form, so they only answer requests
+ * within the authentication session of a user who has the required action pending, identified by the
+ * authentication session cookie and the {@code client_id} and {@code tab_id} parameters of the form.
+ */
+public class CreateOrganizationRealmResource {
+
+    public static final String NAME_AVAILABLE_PATH = "organization-name-available";
+    public static final String SEARCH_PATH = "organizations";
+
+    public static final int DEFAULT_SEARCH_RESULTS = 10;
+    public static final int MAX_SEARCH_RESULTS = 20;
+
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MIN_SEARCH_LENGTH = 2;
+
+    private final KeycloakSession session;
+    private final RealmModel realm;
+    private final OrganizationCreator organizationCreator;
+    private final OrganizationSearchIndex searchIndex;
+    private final BoundedCache<String, TokenBucket> rateLimits;
+
+    public CreateOrganizationRealmResource(
+            KeycloakSession session,
+            OrganizationCreator organizationCreator,
+            OrganizationSearchIndex searchIndex,
+            BoundedCache<String, TokenBucket> rateLimits
+    ) {
+        this.session = session;
+        this.realm = session.getContext().getRealm();
+        this.organizationCreator = organizationCreator;
+        this.searchIndex = searchIndex;
+        this.rateLimits = rateLimits;
+    }
+
+    /**
+     * Reports whether an organization name is still available and which alias it would get, so the form can give
+     * feedback while the user types. Rate limited per client address.
+     */
+    @GET
+    @Path(NAME_AVAILABLE_PATH)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response isOrganizationNameAvailable(
+            @QueryParam("name") String name,
+            @QueryParam(Constants.CLIENT_ID) String clientId,
+            @QueryParam(Constants.TAB_ID) String tabId
+    ) {
+        requireEnabled();
+        requirePendingUser(clientId, tabId);
+        requireRateLimit();
+
+        if (name == null || name.isBlank()) {
+            throw new BadRequestException("Organization name cannot be blank");
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new BadRequestException("Organization name is too long");
+        }
+
+        final String organizationName = normalizedNameOf(name);
+        if (organizationName.isEmpty()) {
+            throw new BadRequestException("Organization name cannot be blank");
+        }
+        final Map<String, Object> availability = new LinkedHashMap<>();
+        availability.put("name", organizationName);
+        availability.put("alias", organizationSlugOf(organizationName, isNameTransliterationEnabled(session)).alias());
+        availability.put("available", organizationCreator.isNameAvailable(session, organizationName));
+        return Response.ok(availability)
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .build();
+    }
+
+    /**
+     * Finds organizations with a word of their name starting with the search string, so users can request to join
+     * an existing organization instead of creating a new one. Served from the in-memory {@link OrganizationSearchIndex},
+     * available only if join requests are enabled and rate limited per client address.
+     *
+     * @param max number of organizations returned, {@value #DEFAULT_SEARCH_RESULTS} by default and at most
+     *            {@value #MAX_SEARCH_RESULTS}
+     */
+    @GET
+    @Path(SEARCH_PATH)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response searchOrganizations(
+            @QueryParam("search") String search,
+            @QueryParam("max") Integer max,
+            @QueryParam(Constants.CLIENT_ID) String clientId,
+            @QueryParam(Constants.TAB_ID) String tabId
+    ) {
+        requireEnabled();
+        if (!isJoinRequestEnabled(session)) {
+            throw new NotFoundException();
+        }
+        requirePendingUser(clientId, tabId);
+        requireRateLimit();
+
+        if (search == null || search.isBlank()) {
+            throw new BadRequestException("Search cannot be blank");
+        }
+        if (search.length() > MAX_NAME_LENGTH) {
+            throw new BadRequestException("Search is too long");
+        }
+
+        final List<Map<String, String>> organizations;
+        if (search.trim().length() < MIN_SEARCH_LENGTH) {
+            organizations = List.of();
+        } else {
+            final int limit = Math.max(1, Math.min(MAX_SEARCH_RESULTS, max == null ? DEFAULT_SEARCH_RESULTS : max));
+            final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
+            // The index may be stale, so only organizations that still exist and are enabled are returned
+            organizations = searchIndex.search(session, search, limit).stream()
+                    .map(organizationProvider::getById)
+                    .filter(Objects::nonNull)
+                    .filter(OrganizationModel::isEnabled)
+                    .map(organization -> Map.of("id", organization.getId(), "name", organization.getName()))
+                    .toList();
+        }
+        return Response.ok(organizations)
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .build();
+    }
+
+    private void requireRateLimit() {
+        final TokenBucket rateLimit = rateLimits.computeIfAbsent(
+                realm.getId() + "/" + session.getContext().getConnection().getRemoteAddr(),
+                key -> new TokenBucket(RATE_LIMIT_CAPACITY, RATE_LIMIT_REFILL_PERIOD)
+        );
+        if (!rateLimit.tryAcquire()) {
+            throw new WebApplicationException(Response.status(Response.Status.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Math.max(1, rateLimit.timeToNextToken().toSeconds()))
+                    .build());
+        }
+    }
+
+    /**
+     * Requires the request to come from the form: the authentication session of the cookie, in the tab of the form,
+     * must have an authenticated user with this required action pending.
+     */
+    private void requirePendingUser(String clientId, String tabId) {
+        final ClientModel client = clientId == null ? null : realm.getClientByClientId(clientId);
+        final RootAuthenticationSessionModel rootAuthenticationSession = client == null || tabId == null
+                ? null
+                : new AuthenticationSessionManager(session).getCurrentRootAuthenticationSession(realm);
+        final AuthenticationSessionModel authenticationSession = rootAuthenticationSession == null
+                ? null
+                : rootAuthenticationSession.getAuthenticationSession(client, tabId);
+        final UserModel user = authenticationSession == null ? null : authenticationSession.getAuthenticatedUser();
+        if (user == null || !(authenticationSession.getRequiredActions().contains(PROVIDER_ID)
+                || user.getRequiredActionsStream().anyMatch(PROVIDER_ID::equals))) {
+            throw new ForbiddenException();
+        }
+    }
+
+    private void requireEnabled() {
+        final RequiredActionProviderModel requiredAction = realm.getRequiredActionProviderByAlias(PROVIDER_ID);
+        if (!realm.isOrganizationsEnabled() || requiredAction == null || !requiredAction.isEnabled()) {
+            throw new NotFoundException();
+        }
+    }
+
+    /**
+     * @return the absolute URL of {@link #isOrganizationNameAvailable} in the current realm for the form shown in
+     * the authentication session
+     */
+    public static String nameAvailableUrlOf(@Nonnull KeycloakSession session, @Nonnull AuthenticationSessionModel authenticationSession) {
+        return urlOf(session, authenticationSession, NAME_AVAILABLE_PATH);
+    }
+
+    /**
+     * @return the absolute URL of {@link #searchOrganizations} in the current realm for the form shown in the
+     * authentication session
+     */
+    public static String searchUrlOf(@Nonnull KeycloakSession session, @Nonnull AuthenticationSessionModel authenticationSession) {
+        return urlOf(session, authenticationSession, SEARCH_PATH);
+    }
+
+    private static String urlOf(KeycloakSession session, AuthenticationSessionModel authenticationSession, String path) {
+        return session.getContext().getUri().getBaseUriBuilder()
+                .path("realms")
+                .path(session.getContext().getRealm().getName())
+                .path(CreateOrganizationRealmResourceProviderFactory.PROVIDER_ID)
+                .path(path)
+                .queryParam(Constants.CLIENT_ID, authenticationSession.getClient().getClientId())
+                .queryParam(Constants.TAB_ID, authenticationSession.getTabId())
+                .build()
+                .toString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.wingsofovnia.keycloak.organization.realm;
+
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreator;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationSearchIndex;
+import com.github.wingsofovnia.keycloak.organization.util.BoundedCache;
+import com.github.wingsofovnia.keycloak.organization.util.TokenBucket;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.services.resource.RealmResourceProvider;
+
+public class CreateOrganizationRealmResourceProvider implements RealmResourceProvider {
+
+    private final KeycloakSession session;
+    private final OrganizationCreator organizationCreator;
+    private final OrganizationSearchIndex searchIndex;
+    private final BoundedCache<String, TokenBucket> rateLimits;
+
+    public CreateOrganizationRealmResourceProvider(
+            KeycloakSession session,
+            OrganizationCreator organizationCreator,
+            OrganizationSearchIndex searchIndex,
+            BoundedCache<String, TokenBucket> rateLimits
+    ) {
+        this.session = session;
+        this.organizationCreator = organizationCreator;
+        this.searchIndex = searchIndex;
+        this.rateLimits = rateLimits;
+    }
+
+    @Override
+    public Object getResource() {
+        return new CreateOrganizationRealmResource(session, organizationCreator, searchIndex, rateLimits);
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.wingsofovnia.keycloak.organization.realm;
+
+import com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredAction;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationCreator;
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationSearchIndex;
+import com.github.wingsofovnia.keycloak.organization.util.BoundedCache;
+import com.github.wingsofovnia.keycloak.organization.util.TokenBucket;
+import org.keycloak.Config;
+import org.keycloak.authentication.RequiredActionProvider;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.services.resource.RealmResourceProvider;
+import org.keycloak.services.resource.RealmResourceProviderFactory;
+
+import java.time.Duration;
+
+/**
+ * Registers {@link CreateOrganizationRealmResource} under {@code /realms/{realm}/create-organization}.
+ */
+public class CreateOrganizationRealmResourceProviderFactory implements RealmResourceProviderFactory {
+
+    public static final String PROVIDER_ID = "create-organization";
+
+    public static final long RATE_LIMIT_CAPACITY = 10;
+    public static final Duration RATE_LIMIT_REFILL_PERIOD = Duration.ofSeconds(5);
+
+    private static final int MAX_RATE_LIMITED_CLIENTS = 10_000;
+
+    // Per realm and client address, idle buckets are full again long before they expire
+    private final BoundedCache<String, TokenBucket> rateLimits = new BoundedCache<>(MAX_RATE_LIMITED_CLIENTS, Duration.ofMinutes(10));
+
+    private OrganizationCreator organizationCreator;
+    private OrganizationSearchIndex organizationSearchIndex;
+
+    @Override
+    public RealmResourceProvider create(KeycloakSession session) {
+        return new CreateOrganizationRealmResourceProvider(session, organizationCreator, organizationSearchIndex, rateLimits);
+    }
+
+    @Override
+    public void init(Config.Scope config) {
+
+    }
+
+    @Override
+    public void postInit(KeycloakSessionFactory factory) {
+        final CreateOrganizationRequiredAction requiredActionFactory = (CreateOrganizationRequiredAction) factory
+                .getProviderFactory(RequiredActionProvider.class, CreateOrganizationRequiredAction.PROVIDER_ID);
+        this.organizationCreator = requiredActionFactory.getOrganizationCreator();
+        this.organizationSearchIndex = requiredActionFactory.getOrganizationSearchIndex();
+    }
+
+    @Override
+    public void close() {
+
+    }
+
+    @Override
+    public String getId() {
+        return PROVIDER_ID;
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.wingsofovnia.keycloak.organization.role;
+
+import com.github.wingsofovnia.keycloak.organization.util.BoundedCache;
+import jakarta.annotation.Nonnull;
+import org.keycloak.models.GroupModel;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.RoleModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.models.utils.KeycloakModelUtils;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.getSkippedRoles;
+
+/**
+ * Checks if a user holds any of the roles or belongs to any of the groups configured to be skipped from
+ * this required action.
+ * <p>
+ * Configured entries are either role names ({@code admin}, {@code my-client.admin}) or group paths
+ * ({@code /admins}). They are resolved once per realm into role and group IDs and re-resolved when the
+ * configuration changes or after {@link #RESOLVED_TTL}. Roles are matched with {@link UserModel#hasRole(RoleModel)},
+ * so composite and group-inherited roles are honoured; groups match members of the group and its subgroups.
+ * Per-user decisions are cached for a short time, as they are queried on every login.
+ */
+public final class SkippedRoleMatcher {
+
+    public static final Duration RESOLVED_TTL = Duration.ofMinutes(5);
+    public static final Duration USER_DECISION_TTL = Duration.ofSeconds(30);
+    public static final int USER_DECISION_CACHE_SIZE = 10_000;
+
+    private static final String GROUP_PATH_PREFIX = "/";
+
+    private final Map<String, ResolvedSkippedRoles> realmSkippedRoles = new ConcurrentHashMap<>();
+    private final BoundedCache<String, Boolean> userDecisions = new BoundedCache<>(USER_DECISION_CACHE_SIZE, USER_DECISION_TTL);
+
+    public boolean isSkipped(@Nonnull KeycloakSession session, @Nonnull UserModel user) {
+        final List<String> definition = getSkippedRoles(session);
+        if (definition.isEmpty()) {
+            return false;
+        }
+
+        final RealmModel realm = session.getContext().getRealm();
+        final ResolvedSkippedRoles skippedRoles = skippedRolesOf(session, realm, definition);
+        if (skippedRoles.isEmpty()) {
+            return false;
+        }
+
+        final String decisionKey = realm.getId() + ":" + skippedRoles.resolvedAt() + ":" + user.getId();
+        final Optional<Boolean> cachedDecision = userDecisions.get(decisionKey);
+        if (cachedDecision.isPresent()) {
+            return cachedDecision.get();
+        }
+
+        final boolean isSkipped = skippedRoles.matches(realm, user);
+        userDecisions.put(decisionKey, isSkipped);
+        return isSkipped;
+    }
+
+    /**
+     * Same as {@link #isSkipped} without caching the decision, for users who are not logging in (e.g. a backfill),
+     * so they do not evict the decisions of those who are.
+     */
+    public boolean isSkippedUncached(@Nonnull KeycloakSession session, @Nonnull UserModel user) {
+        final List<String> definition = getSkippedRoles(session);
+        if (definition.isEmpty()) {
+            return false;
+        }
+
+        final RealmModel realm = session.getContext().getRealm();
+        final ResolvedSkippedRoles skippedRoles = skippedRolesOf(session, realm, definition);
+        return !skippedRoles.isEmpty() && skippedRoles.matches(realm, user);
+    }
+
+    public void invalidateRealm(@Nonnull String realmId) {
+        realmSkippedRoles.remove(realmId);
+    }
+
+    private ResolvedSkippedRoles skippedRolesOf(KeycloakSession session, RealmModel realm, List<String> definition) {
+        final ResolvedSkippedRoles existing = realmSkippedRoles.get(realm.getId());
+        if (existing != null && existing.isValidFor(definition)) {
+            return existing;
+        }
+
+        // Resolved outside the map, as it reads roles and groups. Requests racing here resolve the same definition,
+        // so whichever result is published first is kept, and each request uses its own.
+        final ResolvedSkippedRoles resolved = resolve(session, realm, definition);
+        if (existing == null) {
+            realmSkippedRoles.putIfAbsent(realm.getId(), resolved);
+        } else {
+            realmSkippedRoles.replace(realm.getId(), existing, resolved);
+        }
+        return resolved;
+    }
+
+    private static ResolvedSkippedRoles resolve(KeycloakSession session, RealmModel realm, List<String> definition) {
+        final Set<String> roleIds = new HashSet<>();
+        final Set<String> groupIds = new HashSet<>();
+        for (String entry : definition) {
+            if (entry.startsWith(GROUP_PATH_PREFIX)) {
+                final GroupModel group = KeycloakModelUtils.findGroupByPath(session, realm, entry);
+                if (group != null) {
+                    groupIds.add(group.getId());
+                }
+            } else {
+                final RoleModel role = KeycloakModelUtils.getRoleFromString(realm, entry);
+                if (role != null) {
+                    roleIds.add(role.getId());
+                }
+            }
+        }
+        return new ResolvedSkippedRoles(definition, Set.copyOf(roleIds), Set.copyOf(groupIds), System.currentTimeMillis());
+    }
+
+    private record ResolvedSkippedRoles(
+            List<String> definition,
+            Set<String> roleIds,
+            Set<String> groupIds,
+            long resolvedAt
+    ) {
+        boolean isValidFor(List<String> currentDefinition) {
+            return definition.equals(currentDefinition)
+                    && System.currentTimeMillis() - resolvedAt < RESOLVED_TTL.toMillis();
+        }
+
+        boolean isEmpty() {
+            return roleIds.isEmpty() && groupIds.isEmpty();
+        }
+
+        boolean matches(RealmModel realm, UserModel user) {
+            final boolean hasSkippedRole = roleIds.stream()
+                    .map(realm::getRoleById)
+                    .filter(Objects::nonNull)
+                    .anyMatch(user::hasRole);
+            if (hasSkippedRole) {
+                return true;
+            }
+
+            if (groupIds.isEmpty()) {
+                return false;
+            }
+            return user.getGroupsStream().anyMatch(this::isSkippedGroupOrSubgroup);
+        }
+
+        private boolean isSkippedGroupOrSubgroup(GroupModel group) {
+            for (GroupModel current = group; current != null; current = current.getParent()) {
+                if (groupIds.contains(current.getId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
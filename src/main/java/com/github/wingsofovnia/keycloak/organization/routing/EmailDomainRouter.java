@@ -0,0 +1,80 @@
+package com.github.wingsofovnia.keycloak.organization.routing;
+
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationDomainIndex;
+import jakarta.annotation.Nonnull;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.organization.OrganizationProvider;
+
+import java.util.Locale;
+import java.util.Optional;
+
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredAction.PROVIDER_ID;
+import static com.github.wingsofovnia.keycloak.organization.CreateOrganizationRequiredActionConfig.isEmailDomainRoutingEnabled;
+
+/**
+ * Routes users to the existing organization owning the domain of their email instead of letting them create
+ * a duplicate one.
+ * <p>
+ * Only verified emails are routed, and only to organizations the domain is verified for: organizations created by
+ * this action link the domain their creator typed, unverified, which must not pull in other users of that domain.
+ * The domain is looked up in the in-memory {@link OrganizationDomainIndex}, so users whose domain no organization
+ * owns cost no database query; a match is confirmed by the database before it is used.
+ */
+public final class EmailDomainRouter {
+
+    public static final String JOIN_DECLINED_NOTE = PROVIDER_ID + ".join-declined";
+
+    private final OrganizationDomainIndex domainIndex;
+
+    public EmailDomainRouter(@Nonnull OrganizationDomainIndex domainIndex) {
+        this.domainIndex = domainIndex;
+    }
+
+    /**
+     * @return the enabled organization owning the domain of the user's verified email, if routing is enabled
+     */
+    public Optional<OrganizationModel> organizationOf(@Nonnull KeycloakSession session, @Nonnull UserModel user) {
+        if (!isEmailDomainRoutingEnabled(session) || !user.isEmailVerified()) {
+            return Optional.empty();
+        }
+
+        return emailDomainOf(user.getEmail()).flatMap(emailDomain -> organizationOfDomain(session, emailDomain));
+    }
+
+    /**
+     * @return the enabled organization the domain is linked to and verified for
+     */
+    public Optional<OrganizationModel> organizationOfDomain(@Nonnull KeycloakSession session, @Nonnull String domain) {
+        final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
+        return domainIndex.findVerifiedOrganizationIdOf(session, domain)
+                .map(organizationProvider::getById)
+                .filter(OrganizationModel::isEnabled)
+                .filter(organization -> organization.getDomains()
+                        .anyMatch(organizationDomain -> organizationDomain.isVerified()
+                                && organizationDomain.getName().equalsIgnoreCase(domain)));
+    }
+
+    /**
+     * Adds the user to the organization as an unmanaged member, since the organization exists independently of them.
+     */
+    public void join(@Nonnull KeycloakSession session, @Nonnull OrganizationModel organization, @Nonnull UserModel user) {
+        final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
+        if (!organizationProvider.isMember(organization, user)) {
+            organizationProvider.addMember(organization, user);
+        }
+    }
+
+    private static Optional<String> emailDomainOf(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+
+        final int atIndex = email.lastIndexOf('@');
+        if (atIndex < 0 || atIndex == email.length() - 1) {
+            return Optional.empty();
+        }
+        return Optional.of(email.substring(atIndex + 1).trim().toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.wingsofovnia.keycloak.organization.routing;
+
+import jakarta.annotation.Nonnull;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.organization.OrganizationProvider;
+import org.keycloak.provider.ProviderEvent;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Requests of users to join an existing organization, recorded for the admins of the organization to review.
+ * <p>
+ * A request is stored only on the user, as the organization ID in the {@value #USER_ATTRIBUTE} attribute, so that
+ * concurrent requests to the same organization do not write to the same row and cannot overwrite each other or edits
+ * of the organization by admins. Admins list the requests of an organization by querying users by the attribute
+ * (see {@link #requestersOf}), accept a request by adding the user as a member, which withdraws it, and decline it by
+ * removing the attribute.
+ */
+public final class OrganizationJoinRequests {
+
+    public static final String USER_ATTRIBUTE = "organizationJoinRequest";
+
+    private OrganizationJoinRequests() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Records the request, replacing a pending request of the user to join another organization.
+     */
+    public static void request(@Nonnull OrganizationModel organization, @Nonnull UserModel user) {
+        user.setSingleAttribute(USER_ATTRIBUTE, organization.getId());
+    }
+
+    /**
+     * @return the enabled organization the user is waiting to join, if any
+     */
+    public static Optional<OrganizationModel> pendingOrganizationOf(@Nonnull KeycloakSession session, @Nonnull UserModel user) {
+        // Most users never request to join, so they are answered without a lookup
+        final String organizationId = user.getFirstAttribute(USER_ATTRIBUTE);
+        if (organizationId == null) {
+            return Optional.empty();
+        }
+
+        final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
+        return Optional.ofNullable(organizationProvider.getById(organizationId))
+                .filter(OrganizationModel::isEnabled);
+    }
+
+    public static boolean isPending(@Nonnull KeycloakSession session, @Nonnull UserModel user) {
+        return pendingOrganizationOf(session, user).isPresent();
+    }
+
+    /**
+     * @return users with a request to join the organization, in pages of {@code max} starting at {@code first}
+     */
+    public static Stream<UserModel> requestersOf(
+            @Nonnull KeycloakSession session,
+            @Nonnull RealmModel realm,
+            @Nonnull OrganizationModel organization,
+            int first,
+            int max
+    ) {
+        return session.users().searchForUserStream(realm, Map.of(
+                UserModel.INCLUDE_SERVICE_ACCOUNT, Boolean.FALSE.toString(),
+                USER_ATTRIBUTE, organization.getId()
+        ), first, max);
+    }
+
+    public static void withdraw(@Nonnull UserModel user) {
+        if (user.getFirstAttribute(USER_ATTRIBUTE) != null) {
+            user.removeAttribute(USER_ATTRIBUTE);
+        }
+    }
+
+    /**
+     * Withdraws the request of users who joined an organization, whichever it is.
+     * Intended to be registered with {@link org.keycloak.models.KeycloakSessionFactory#register}.
+     */
+    public static void onEvent(ProviderEvent event) {
+        if (event instanceof OrganizationModel.OrganizationMemberJoinEvent joinEvent) {
+            withdraw(joinEvent.getUser());
+        }
+    }
+}
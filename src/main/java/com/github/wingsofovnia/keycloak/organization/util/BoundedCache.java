@@ -0,0 +1,102 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import jakarta.annotation.Nonnull;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * A minimal thread-safe in-memory cache bounded both by size (least recently used entries are evicted first)
+ * and by time (entries expire after a fixed time-to-live since they were written).
+ * <p>
+ * It is meant for small per-node caches where pulling a full-featured caching library is not justified.
+ */
+public final class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public BoundedCache(int maxSize, @Nonnull Duration ttl) {
+        this(maxSize, ttl, System::currentTimeMillis);
+    }
+
+    BoundedCache(int maxSize, @Nonnull Duration ttl, @Nonnull LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache ttl must be positive");
+        }
+
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > BoundedCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized Optional<V> get(@Nonnull K key) {
+        final Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        if (entry.isExpired(clock.getAsLong())) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+
+        return Optional.of(entry.value());
+    }
+
+    public synchronized void put(@Nonnull K key, @Nonnull V value) {
+        entries.put(key, new Entry<>(value, clock.getAsLong() + ttlMillis));
+    }
+
+    /**
+     * Returns the cached value of the key or, if absent or expired, computes, caches and returns a new one.
+     * The mapping function is invoked under the cache lock, so it is expected to be cheap.
+     */
+    public synchronized V computeIfAbsent(@Nonnull K key, @Nonnull Function<? super K, ? extends V> mappingFunction) {
+        final Optional<V> cached = get(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        final V value = mappingFunction.apply(key);
+        put(key, value);
+        return value;
+    }
+
+    public synchronized void invalidate(@Nonnull K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Duration ttl() {
+        return Duration.ofMillis(ttlMillis);
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import jakarta.annotation.Nonnull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * A lock-free circuit breaker guarding calls to a potentially degraded dependency.
+ * <p>
+ * The breaker starts {@link State#CLOSED} and lets all calls through. After {@code failureThreshold} consecutive
+ * failures it trips {@link State#OPEN} and rejects calls for {@code openDuration}. Then a single probe call is let
+ * through ({@link State#HALF_OPEN}): its success closes the breaker, its failure opens it again.
+ * <p>
+ * Callers must report the outcome of every call permitted by {@link #tryAcquire()}.
+ */
+public final class CircuitBreaker {
+
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+    private final LongSupplier clock;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.CLOSED);
+
+    public CircuitBreaker(int failureThreshold, @Nonnull Duration openDuration) {
+        this(failureThreshold, openDuration, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int failureThreshold, @Nonnull Duration openDuration, @Nonnull LongSupplier clock) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold must be positive");
+        }
+        if (openDuration == null || openDuration.isNegative()) {
+            throw new IllegalArgumentException("Open duration cannot be negative");
+        }
+
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDuration.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * @return {@code true} if the call is permitted and its outcome must be reported, {@code false} if it
+     * should be short-circuited
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            final Snapshot current = snapshot.get();
+            switch (current.state()) {
+                case CLOSED:
+                    return true;
+                case HALF_OPEN:
+                    return false;
+                case OPEN:
+                default:
+                    if (clock.getAsLong() - current.openedAt() < openDurationMillis) {
+                        return false;
+                    }
+                    if (snapshot.compareAndSet(current, new Snapshot(State.HALF_OPEN, current.failures(), current.openedAt()))) {
+                        return true;
+                    }
+            }
+        }
+    }
+
+    public void onSuccess() {
+        snapshot.set(Snapshot.CLOSED);
+    }
+
+    /**
+     * @return {@code true} if this failure tripped the breaker open
+     */
+    public boolean onFailure() {
+        while (true) {
+            final Snapshot current = snapshot.get();
+            if (current.state() == State.OPEN) {
+                return false;
+            }
+
+            final int failures = current.failures() + 1;
+            final Snapshot next = current.state() == State.HALF_OPEN || failures >= failureThreshold
+                    ? new Snapshot(State.OPEN, failures, clock.getAsLong())
+                    : new Snapshot(State.CLOSED, failures, 0);
+            if (snapshot.compareAndSet(current, next)) {
+                return next.state() == State.OPEN;
+            }
+        }
+    }
+
+    public State state() {
+        return snapshot.get().state();
+    }
+
+    public int failureThreshold() {
+        return failureThreshold;
+    }
+
+    public Duration openDuration() {
+        return Duration.ofMillis(openDurationMillis);
+    }
+
+    private record Snapshot(State state, int failures, long openedAt) {
+        static final Snapshot CLOSED = new Snapshot(State.CLOSED, 0, 0);
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import jakarta.annotation.Nonnull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Strategies for the unique part of generated organization domains.
+ * <p>
+ * All IDs are valid domain labels. Apart from {@link #UUID}, IDs are encoded in lower-case Crockford base32 and drawn
+ * from {@link ThreadLocalRandom}, which needs no synchronization between threads, unlike {@link java.util.UUID#randomUUID()}
+ * that goes through a shared {@link java.security.SecureRandom}. None of them is meant to be unguessable, as the
+ * domain of an organization is not a secret.
+ * <p>
+ * Collision probabilities below are for {@code n} generated IDs in a realm. A collision is not fatal: the organization
+ * provider rejects the domain before linking it and the domain is generated again with the next attempt.
+ */
+public enum DomainIdGenerator {
+
+    /**
+     * A random UUID, 36 characters. 122 random bits: {@code p ~ n^2 / 2^123}, about 10^-25 for a million organizations.
+     */
+    UUID {
+        @Override
+        public String idOf(@Nonnull String alias, int attempt) {
+            return java.util.UUID.randomUUID().toString();
+        }
+    },
+
+    /**
+     * The creation time in milliseconds followed by 30 random bits, 16 characters. IDs sort by creation time, and
+     * only IDs generated within the same millisecond can collide: {@code p ~ k^2 / 2^31} for {@code k} IDs in that
+     * millisecond, about 5 * 10^-8 for 10 concurrent registrations.
+     */
+    TIME_ORDERED {
+        @Override
+        public String idOf(@Nonnull String alias, int attempt) {
+            final char[] id = new char[16];
+            encodeBase32(System.currentTimeMillis(), id, 0, 10);
+            encodeBase32(ThreadLocalRandom.current().nextLong(), id, 10, 6);
+            return new String(id);
+        }
+    },
+
+    /**
+     * 60 random bits, 12 characters: {@code p ~ n^2 / 2^61}, about 4 * 10^-7 for a million organizations.
+     */
+    SHORT {
+        @Override
+        public String idOf(@Nonnull String alias, int attempt) {
+            final char[] id = new char[12];
+            encodeBase32(ThreadLocalRandom.current().nextLong(), id, 0, 12);
+            return new String(id);
+        }
+    },
+
+    /**
+     * 60 bits of a hash of the alias and the attempt, 12 characters. Deterministic, so the first attempt for an alias
+     * always yields the same ID and a retry is needed when names map to the same alias (e.g. "Acme!" and "ACME").
+     * Distinct aliases collide with {@code p ~ n / 2^60} per creation, about 10^-12 at a million organizations.
+     */
+    ALIAS_HASH {
+        @Override
+        public String idOf(@Nonnull String alias, int attempt) {
+            final char[] id = new char[12];
+            encodeBase32(hashOf(alias, attempt), id, 0, 12);
+            return new String(id);
+        }
+    };
+
+    private static final char[] BASE32_ALPHABET = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+
+    /**
+     * @param alias   alias of the organization, used by {@link #ALIAS_HASH} only
+     * @param attempt zero-based number of the attempt, used by {@link #ALIAS_HASH} only
+     */
+    public abstract String idOf(@Nonnull String alias, int attempt);
+
+    /**
+     * Writes the lowest {@code 5 * length} bits of the value as base32, most significant digit first.
+     */
+    private static void encodeBase32(long value, char[] target, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            target[i] = BASE32_ALPHABET[(int) (value & 0x1F)];
+            value >>>= 5;
+        }
+    }
+
+    private static long hashOf(String alias, int attempt) {
+        // FNV-1a, finalized with the MurmurHash3 mixer to spread the bits
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : alias.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+        }
+        hash = (hash ^ attempt) * 0x100000001b3L;
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,141 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A trie of domain names keyed by their labels in reverse order ({@code sub.acme.com} is stored as
+ * {@code com -> acme -> sub}), so that exact, parent and subdomain lookups all take a number of steps proportional
+ * to the number of labels, regardless of how many domains are stored.
+ * <p>
+ * Domains are compared case-insensitively and without a trailing dot. Not thread-safe.
+ */
+public final class DomainTrie<V> {
+
+    private final Node<V> root = new Node<>();
+
+    /**
+     * @return the value previously associated with the domain, if any
+     */
+    public Optional<V> put(@Nonnull String domain, @Nonnull V value) {
+        final String[] labels = labelsOf(domain);
+        final Node<V> node = nodeOf(labels, true);
+        final V previous = node.value;
+        node.value = value;
+        node.domain = String.join(".", labels);
+        if (previous == null) {
+            adjustDomainCounts(labels, 1);
+        }
+        return Optional.ofNullable(previous);
+    }
+
+    public Optional<V> get(@Nonnull String domain) {
+        final Node<V> node = nodeOf(labelsOf(domain), false);
+        return node == null ? Optional.empty() : Optional.ofNullable(node.value);
+    }
+
+    /**
+     * @return the value that was associated with the domain, if any
+     */
+    public Optional<V> remove(@Nonnull String domain) {
+        final String[] labels = labelsOf(domain);
+        final Node<V> node = nodeOf(labels, false);
+        if (node == null || node.value == null) {
+            return Optional.empty();
+        }
+
+        final V previous = node.value;
+        node.value = null;
+        node.domain = null;
+        adjustDomainCounts(labels, -1);
+        return Optional.of(previous);
+    }
+
+    /**
+     * @return the closest stored domain that the given domain is a subdomain of, e.g. {@code acme.com} for
+     * {@code eu.sub.acme.com}
+     */
+    public Optional<String> findParentOf(@Nonnull String domain) {
+        final String[] labels = labelsOf(domain);
+        Node<V> node = root;
+        String closestParent = null;
+        for (int i = labels.length - 1; i > 0; i--) {
+            node = node.children.get(labels[i]);
+            if (node == null) {
+                break;
+            }
+            if (node.value != null) {
+                closestParent = node.domain;
+            }
+        }
+        return Optional.ofNullable(closestParent);
+    }
+
+    /**
+     * @return any stored domain that is a subdomain of the given domain, e.g. {@code sub.acme.com} for {@code acme.com}
+     */
+    public Optional<String> findSubdomainOf(@Nonnull String domain) {
+        Node<V> node = nodeOf(labelsOf(domain), false);
+        if (node == null || node.domainCount - (node.value != null ? 1 : 0) == 0) {
+            return Optional.empty();
+        }
+
+        // Follow the counts down to a stored domain
+        do {
+            node = node.children.values().stream()
+                    .filter(child -> child.domainCount > 0)
+                    .findAny()
+                    .orElseThrow(IllegalStateException::new);
+        } while (node.value == null);
+        return Optional.of(node.domain);
+    }
+
+    public int size() {
+        return root.domainCount;
+    }
+
+    private Node<V> nodeOf(String[] labels, boolean isCreateMissing) {
+        Node<V> node = root;
+        for (int i = labels.length - 1; i >= 0 && node != null; i--) {
+            node = isCreateMissing ? node.children.computeIfAbsent(labels[i], label -> new Node<>()) : node.children.get(labels[i]);
+        }
+        return node;
+    }
+
+    private void adjustDomainCounts(String[] labels, int delta) {
+        Node<V> node = root;
+        node.domainCount += delta;
+        for (int i = labels.length - 1; i >= 0; i--) {
+            final Node<V> child = node.children.get(labels[i]);
+            child.domainCount += delta;
+            if (child.domainCount == 0) {
+                // Prune branches without domains
+                node.children.remove(labels[i]);
+                return;
+            }
+            node = child;
+        }
+    }
+
+    private static String[] labelsOf(String domain) {
+        String normalized = domain.trim().toLowerCase(Locale.ROOT);
+        if (normalized.endsWith(".")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Domain cannot be blank");
+        }
+        return normalized.split("\\.", -1);
+    }
+
+    private static final class Node<V> {
+        private final Map<String, Node<V>> children = new HashMap<>();
+        private String domain;
+        private V value;
+        private int domainCount; // stored domains in this subtree, including this node
+    }
+}
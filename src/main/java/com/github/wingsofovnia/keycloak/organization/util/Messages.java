@@ -6,6 +6,11 @@ public final class Messages {
     public static final String ORGANIZATION_DOMAIN_IS_BLANK = "orgDomainBlank";
     public static final String ORGANIZATION_EXISTS = "orgExists";
     public static final String ORGANIZATION_DOMAIN_IS_INVALID = "orgDomainInvalid";
+    public static final String ORGANIZATION_DOMAIN_EXISTS = "orgDomainExists";
+    public static final String ORGANIZATION_DOMAIN_CONFLICTS = "orgDomainConflicts";
     public static final String ORGANIZATION_ATTRIBUTES_ARE_INVALID = "orgAttributesInvalid";
     public static final String ORGANIZATION_ATTRIBUTE_VALIDATION_ERROR = "orgAttributeValidationError";
+    public static final String ORGANIZATION_PROVISIONING_FAILED = "orgProvisioningFailed";
+    public static final String ORGANIZATION_CREATION_THROTTLED = "orgCreationThrottled";
+    public static final String ORGANIZATION_JOIN_REQUEST_UNKNOWN = "orgJoinRequestUnknown";
 }
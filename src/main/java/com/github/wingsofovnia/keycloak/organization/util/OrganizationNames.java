@@ -0,0 +1,98 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import jakarta.annotation.Nonnull;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Normalization of organization names and their confusable skeletons.
+ * <p>
+ * A skeleton is a form of the name under which visually confusable names are equal, e.g. {@code Acme}, {@code ACME}
+ * and {@code Acme} spelled with a Greek capital alpha all have the skeleton {@code acme}. It follows the idea of the skeleton
+ * of <a href="https://www.unicode.org/reports/tr39/#Confusable_Detection">UTS #39</a>, but with a curated table of
+ * single-character Latin lookalikes from Greek, Cyrillic and digits instead of the full confusables data. Characters
+ * that only differ in case are confusable too, so lookalikes are mapped before lower-casing, and the vertical strokes
+ * {@code I}, {@code l} and {@code 1} all map to {@code l}, so {@code PayPaI} is confusable with {@code PayPal}.
+ */
+public final class OrganizationNames {
+
+    private static final Map<Integer, Character> CONFUSABLES = Map.ofEntries(
+            // Greek
+            Map.entry(0x0391, 'A'), Map.entry(0x0392, 'B'), Map.entry(0x0395, 'E'), Map.entry(0x0396, 'Z'),
+            Map.entry(0x0397, 'H'), Map.entry(0x0399, 'l'), Map.entry(0x039A, 'K'), Map.entry(0x039C, 'M'),
+            Map.entry(0x039D, 'N'), Map.entry(0x039F, 'O'), Map.entry(0x03A1, 'P'), Map.entry(0x03A4, 'T'),
+            Map.entry(0x03A5, 'Y'), Map.entry(0x03A7, 'X'),
+            Map.entry(0x03B1, 'a'), Map.entry(0x03B3, 'y'), Map.entry(0x03B9, 'i'), Map.entry(0x03BA, 'k'),
+            Map.entry(0x03BD, 'v'), Map.entry(0x03BF, 'o'), Map.entry(0x03C1, 'p'), Map.entry(0x03C5, 'u'),
+            Map.entry(0x03C7, 'x'),
+            // Cyrillic
+            Map.entry(0x0405, 'S'), Map.entry(0x0406, 'l'), Map.entry(0x0408, 'J'), Map.entry(0x0410, 'A'),
+            Map.entry(0x0412, 'B'), Map.entry(0x0415, 'E'), Map.entry(0x041A, 'K'), Map.entry(0x041C, 'M'),
+            Map.entry(0x041D, 'H'), Map.entry(0x041E, 'O'), Map.entry(0x0420, 'P'), Map.entry(0x0421, 'C'),
+            Map.entry(0x0422, 'T'), Map.entry(0x0425, 'X'), Map.entry(0x04AE, 'Y'),
+            Map.entry(0x0430, 'a'), Map.entry(0x0435, 'e'), Map.entry(0x043E, 'o'), Map.entry(0x0440, 'p'),
+            Map.entry(0x0441, 'c'), Map.entry(0x0443, 'y'), Map.entry(0x0445, 'x'), Map.entry(0x0455, 's'),
+            Map.entry(0x0456, 'i'), Map.entry(0x0458, 'j'), Map.entry(0x04AF, 'y'), Map.entry(0x04BB, 'h'),
+            Map.entry(0x04C0, 'l'), Map.entry(0x0501, 'd'), Map.entry(0x051B, 'q'), Map.entry(0x051D, 'w'),
+            // Latin capital I, lower case l and digit one share the skeleton character l
+            Map.entry((int) 'I', 'l'),
+            // Digits
+            Map.entry((int) '0', 'o'), Map.entry((int) '1', 'l')
+    );
+
+    private OrganizationNames() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Normalizes the name for storing: applies NFKC (e.g. full-width letters and ligatures become plain ones), drops
+     * invisible characters (e.g. zero-width spaces) and collapses whitespace. Letters are kept as they are.
+     */
+    @Nonnull
+    public static String normalizedNameOf(@Nonnull String name) {
+        final String nfkcName = Normalizer.normalize(name, Normalizer.Form.NFKC);
+        final StringBuilder normalizedName = new StringBuilder(nfkcName.length());
+        nfkcName.codePoints().forEach(codePoint -> {
+            if (isInvisible(codePoint)) {
+                return;
+            }
+            if (Character.isWhitespace(codePoint) || Character.isSpaceChar(codePoint)) {
+                if (!normalizedName.isEmpty() && normalizedName.charAt(normalizedName.length() - 1) != ' ') {
+                    normalizedName.append(' ');
+                }
+                return;
+            }
+            normalizedName.appendCodePoint(codePoint);
+        });
+
+        final int length = normalizedName.length();
+        if (length > 0 && normalizedName.charAt(length - 1) == ' ') {
+            normalizedName.setLength(length - 1);
+        }
+        return normalizedName.toString();
+    }
+
+    /**
+     * @return the confusable skeleton of the name: its normalized form with lookalike characters replaced by their
+     * Latin counterparts, in lower case
+     */
+    @Nonnull
+    public static String skeletonOf(@Nonnull String name) {
+        final String normalizedName = normalizedNameOf(name);
+        final StringBuilder skeleton = new StringBuilder(normalizedName.length());
+        normalizedName.codePoints().forEach(codePoint -> {
+            final Character latinLookalike = CONFUSABLES.get(codePoint);
+            skeleton.appendCodePoint(latinLookalike != null ? latinLookalike : codePoint);
+        });
+        return skeleton.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isInvisible(int codePoint) {
+        // Format characters include zero-width spaces and joiners, soft hyphens and byte order marks
+        return Character.getType(codePoint) == Character.FORMAT
+                || codePoint == 0x034F // combining grapheme joiner
+                || (codePoint >= 0xFE00 && codePoint <= 0xFE0F); // variation selectors
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.wingsofovnia.keycloak.organization.util;
 
+import com.github.wingsofovnia.keycloak.organization.util.Slugifier.Slug;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import org.keycloak.authentication.actiontoken.inviteorg.InviteOrgActionToken;
@@ -9,47 +10,99 @@ import org.keycloak.models.OrganizationModel;
 import org.keycloak.organization.OrganizationProvider;
 
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
 
 public final class Organizations {
 
+    private static final int ALIAS_SUFFIX_LENGTH = 4;
+    private static final String ALIAS_SUFFIX_ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    private static final int MAX_DOMAIN_LABEL_LENGTH = 63;
+    private static final int MAX_DOMAIN_NAME_LENGTH = 253;
+    private static final Pattern DOMAIN_NAME_PATTERN =
+            Pattern.compile("(?i)^(?:[a-z0-9](?:[a-z0-9-]{0,61}[a-z0-9])?)(?:\\.[a-z0-9](?:[a-z0-9-]{0,61}[a-z0-9])?)*$");
+
     private Organizations() {
         throw new AssertionError();
     }
 
+    /**
+     * Derives both the alias and the domain label from the name in one pass, see {@link Slugifier}.
+     *
+     * @param isTransliterated whether letters of other scripts are spelled in Latin rather than dropped
+     */
     @Nonnull
-    public static String organizationAliasOf(@Nonnull String name) {
+    public static Slug organizationSlugOf(@Nonnull String name, boolean isTransliterated) {
         if (name == null || name.isBlank()) {
             throw new IllegalArgumentException("Organization name cannot be null or blank");
         }
 
-        return safeNameOf(name, "_");
+        return Slugifier.slugOf(name, isTransliterated);
     }
 
+    /**
+     * Appends a short random suffix to the alias, e.g. {@code acme} becomes {@code acme_k3x9}.
+     */
     @Nonnull
-    public static String randomDomainOf(@Nonnull String name) {
-        if (name == null || name.isBlank()) {
-            return UUID.randomUUID().toString();
+    public static String suffixedAliasOf(@Nonnull String alias) {
+        if (alias == null || alias.isBlank()) {
+            throw new IllegalArgumentException("Organization alias cannot be null or blank");
         }
 
-        return UUID.randomUUID() + "-" + safeNameOf(name, "-");
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final StringBuilder suffixedAlias = new StringBuilder(alias.length() + 1 + ALIAS_SUFFIX_LENGTH)
+                .append(alias)
+                .append('_');
+        for (int i = 0; i < ALIAS_SUFFIX_LENGTH; i++) {
+            suffixedAlias.append(ALIAS_SUFFIX_ALPHABET.charAt(random.nextInt(ALIAS_SUFFIX_ALPHABET.length())));
+        }
+        return suffixedAlias.toString();
     }
 
+    /**
+     * Generates a domain from an ID of the given strategy and the slug of the name, e.g.
+     * {@code 1z7x9t136xsr-my-organization}. The name part is cut so that the domain stays a single valid label.
+     *
+     * @param attempt zero-based number of the attempt, increased when the previous domain was taken
+     */
     @Nonnull
-    private static String safeNameOf(@Nonnull String name, @Nonnull String delimiter) {
-        if (name == null || name.isBlank()) {
-            return "";
+    public static String generatedDomainOf(@Nonnull DomainIdGenerator generator, @Nonnull Slug slug, int attempt) {
+        final String id = generator.idOf(slug.alias(), attempt);
+        if (slug.isEmpty()) {
+            return id;
         }
 
-        return name
-                .toLowerCase()
-                .trim()
-                .replaceAll("[^a-z0-9-_\\s]", "")
-                .replaceAll("[\\s-]+", delimiter);
+        final String domainLabel = slug.domainLabel();
+        int end = Math.min(domainLabel.length(), MAX_DOMAIN_LABEL_LENGTH - id.length() - 1);
+        while (end > 0 && domainLabel.charAt(end - 1) == '-') {
+            end--;
+        }
+        return end > 0 ? id + "-" + domainLabel.substring(0, end) : id;
+    }
+
+    /**
+     * Checks if the value is a syntactically valid domain name: dot-separated labels of up to 63 letters, digits
+     * or hyphens (not at the start or end of a label), 253 characters in total.
+     */
+    public static boolean isValidDomainName(String domainName) {
+        if (domainName == null || domainName.isBlank() || domainName.length() > MAX_DOMAIN_NAME_LENGTH) {
+            return false;
+        }
+
+        return DOMAIN_NAME_PATTERN.matcher(domainName).matches();
+    }
+
+    /**
+     * Checks if the user is being invited to an organization, based on the invitation token in the session alone.
+     * Use this instead of {@link #getInvitingOrganization(KeycloakSession)} when the organization itself is not needed.
+     */
+    public static boolean isInvited(@Nonnull KeycloakSession session) {
+        return getInvitingOrganizationId(session).isPresent();
     }
 
     @Nonnull
-    public static Optional<OrganizationModel> getInvitingOrganization(@Nonnull KeycloakSession session) {
+    public static Optional<String> getInvitingOrganizationId(@Nonnull KeycloakSession session) {
         if (session == null) {
             return Optional.empty();
         }
@@ -64,8 +117,15 @@ public final class Organizations {
             return Optional.empty();
         }
 
-        final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
-        return Optional.ofNullable(organizationProvider.getById(token.getOrgId()));
+        return Optional.ofNullable(token.getOrgId());
+    }
+
+    @Nonnull
+    public static Optional<OrganizationModel> getInvitingOrganization(@Nonnull KeycloakSession session) {
+        return getInvitingOrganizationId(session).map(organizationId -> {
+            final OrganizationProvider organizationProvider = session.getProvider(OrganizationProvider.class);
+            return organizationProvider.getById(organizationId);
+        });
     }
 
     @Nullable
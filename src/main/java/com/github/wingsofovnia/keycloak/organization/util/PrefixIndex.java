@@ -0,0 +1,88 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An index of values by string keys in sorted order, so that the values of all keys starting with a prefix are found
+ * by seeking to the prefix and reading on until the first key that does not start with it. A search visits no more
+ * keys than it returns values (plus one), regardless of how many keys are stored.
+ * <p>
+ * Keys are compared case-insensitively and trimmed. A value may be stored under several keys, e.g. under every word
+ * of a name, and is returned once. Not thread-safe.
+ */
+public final class PrefixIndex<V> {
+
+    private final NavigableMap<String, Set<V>> values = new TreeMap<>();
+    private int size;
+
+    public void put(@Nonnull String key, @Nonnull V value) {
+        final String normalizedKey = normalizedKeyOf(key);
+        if (normalizedKey.isEmpty()) {
+            throw new IllegalArgumentException("Key cannot be blank");
+        }
+        if (values.computeIfAbsent(normalizedKey, k -> new LinkedHashSet<>()).add(value)) {
+            size++;
+        }
+    }
+
+    /**
+     * @return whether the value was stored under the key
+     */
+    public boolean remove(@Nonnull String key, @Nonnull V value) {
+        final String normalizedKey = normalizedKeyOf(key);
+        final Set<V> keyValues = values.get(normalizedKey);
+        if (keyValues == null || !keyValues.remove(value)) {
+            return false;
+        }
+
+        if (keyValues.isEmpty()) {
+            values.remove(normalizedKey);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * @return up to {@code limit} distinct values of keys starting with the prefix, in key order
+     */
+    public List<V> search(@Nonnull String prefix, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+
+        final String normalizedPrefix = normalizedKeyOf(prefix);
+        final Set<V> found = new LinkedHashSet<>();
+        for (Map.Entry<String, Set<V>> entry : values.tailMap(normalizedPrefix, true).entrySet()) {
+            if (found.size() >= limit || !entry.getKey().startsWith(normalizedPrefix)) {
+                break;
+            }
+            for (V value : entry.getValue()) {
+                if (found.size() >= limit) {
+                    break;
+                }
+                found.add(value);
+            }
+        }
+        return new ArrayList<>(found);
+    }
+
+    /**
+     * @return the number of stored key and value pairs
+     */
+    public int size() {
+        return size;
+    }
+
+    private static String normalizedKeyOf(String key) {
+        return key.trim().toLowerCase(Locale.ROOT);
+    }
+}
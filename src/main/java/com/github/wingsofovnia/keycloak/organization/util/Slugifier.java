@@ -0,0 +1,126 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import jakarta.annotation.Nonnull;
+
+import java.text.Normalizer;
+import java.util.Map;
+
+/**
+ * Builds the alias and the domain label of an organization name in a single pass over its code points.
+ * <p>
+ * ASCII letters and digits are kept in lower case, runs of whitespace, hyphens and underscores become a single
+ * delimiter ({@code _} in aliases, {@code -} in domain labels) and everything else is dropped. With transliteration,
+ * Latin letters with diacritics, Greek and Cyrillic letters are replaced by their Latin spelling instead of being
+ * dropped, e.g. {@code Caf\u00e9} becomes {@code cafe}. Transliterations are looked up in a table computed once.
+ */
+public final class Slugifier {
+
+    private static final int TRANSLITERATION_TABLE_SIZE = 0x0500; // up to and including Cyrillic
+    private static final String[] TRANSLITERATIONS = transliterationTable();
+
+    private Slugifier() {
+        throw new AssertionError();
+    }
+
+    public record Slug(@Nonnull String alias, @Nonnull String domainLabel) {
+
+        public boolean isEmpty() {
+            return alias.isEmpty();
+        }
+    }
+
+    @Nonnull
+    public static Slug slugOf(@Nonnull String name, boolean isTransliterated) {
+        final int length = name.length();
+        final StringBuilder alias = new StringBuilder(length);
+        final StringBuilder domainLabel = new StringBuilder(length);
+
+        boolean isDelimiterPending = false;
+        for (int i = 0; i < length; ) {
+            final int codePoint = name.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            final String transliteration;
+            if ((codePoint >= 'a' && codePoint <= 'z') || (codePoint >= '0' && codePoint <= '9')) {
+                transliteration = null;
+            } else if (codePoint >= 'A' && codePoint <= 'Z') {
+                transliteration = null;
+            } else if (codePoint == '-' || codePoint == '_' || Character.isWhitespace(codePoint) || Character.isSpaceChar(codePoint)) {
+                isDelimiterPending = !alias.isEmpty();
+                continue;
+            } else if (isTransliterated && codePoint < TRANSLITERATION_TABLE_SIZE && TRANSLITERATIONS[codePoint] != null) {
+                transliteration = TRANSLITERATIONS[codePoint];
+                if (transliteration.isEmpty()) {
+                    // Signs spelled as nothing (e.g. Cyrillic soft sign) must not flush a pending delimiter, which
+                    // would end the slug with one
+                    continue;
+                }
+            } else {
+                continue;
+            }
+
+            if (isDelimiterPending) {
+                alias.append('_');
+                domainLabel.append('-');
+                isDelimiterPending = false;
+            }
+            if (transliteration == null) {
+                final char c = (char) (codePoint | 0x20); // ASCII lower case, no-op for digits
+                alias.append(c);
+                domainLabel.append(c);
+            } else {
+                alias.append(transliteration);
+                domainLabel.append(transliteration);
+            }
+        }
+
+        return new Slug(alias.toString(), domainLabel.toString());
+    }
+
+    private static String[] transliterationTable() {
+        final Map<Character, String> letters = Map.ofEntries(
+                // Latin letters without a decomposition
+                Map.entry('\u00df', "ss"), Map.entry('\u00e6', "ae"), Map.entry('\u0153', "oe"), Map.entry('\u00f8', "o"),
+                Map.entry('\u0111', "d"), Map.entry('\u00f0', "d"), Map.entry('\u00fe', "th"), Map.entry('\u0142', "l"),
+                Map.entry('\u0131', "i"), Map.entry('\u0127', "h"), Map.entry('\u0167', "t"), Map.entry('\u0140', "l"),
+                // Greek
+                Map.entry('\u03b1', "a"), Map.entry('\u03b2', "v"), Map.entry('\u03b3', "g"), Map.entry('\u03b4', "d"),
+                Map.entry('\u03b5', "e"), Map.entry('\u03b6', "z"), Map.entry('\u03b7', "i"), Map.entry('\u03b8', "th"),
+                Map.entry('\u03b9', "i"), Map.entry('\u03ba', "k"), Map.entry('\u03bb', "l"), Map.entry('\u03bc', "m"),
+                Map.entry('\u03bd', "n"), Map.entry('\u03be', "x"), Map.entry('\u03bf', "o"), Map.entry('\u03c0', "p"),
+                Map.entry('\u03c1', "r"), Map.entry('\u03c3', "s"), Map.entry('\u03c2', "s"), Map.entry('\u03c4', "t"),
+                Map.entry('\u03c5', "y"), Map.entry('\u03c6', "f"), Map.entry('\u03c7', "ch"), Map.entry('\u03c8', "ps"),
+                Map.entry('\u03c9', "o"),
+                // Cyrillic
+                Map.entry('\u0430', "a"), Map.entry('\u0431', "b"), Map.entry('\u0432', "v"), Map.entry('\u0433', "g"),
+                Map.entry('\u0491', "g"), Map.entry('\u0434', "d"), Map.entry('\u0435', "e"), Map.entry('\u0454', "ye"),
+                Map.entry('\u0451', "yo"), Map.entry('\u0436', "zh"), Map.entry('\u0437', "z"), Map.entry('\u0438', "i"),
+                Map.entry('\u0456', "i"), Map.entry('\u0457', "yi"), Map.entry('\u0439', "y"), Map.entry('\u043a', "k"),
+                Map.entry('\u043b', "l"), Map.entry('\u043c', "m"), Map.entry('\u043d', "n"), Map.entry('\u043e', "o"),
+                Map.entry('\u043f', "p"), Map.entry('\u0440', "r"), Map.entry('\u0441', "s"), Map.entry('\u0442', "t"),
+                Map.entry('\u0443', "u"), Map.entry('\u0444', "f"), Map.entry('\u0445', "kh"), Map.entry('\u0446', "ts"),
+                Map.entry('\u0447', "ch"), Map.entry('\u0448', "sh"), Map.entry('\u0449', "shch"), Map.entry('\u044a', ""),
+                Map.entry('\u044b', "y"), Map.entry('\u044c', ""), Map.entry('\u044d', "e"), Map.entry('\u044e', "yu"),
+                Map.entry('\u044f', "ya"), Map.entry('\u045e', "u"), Map.entry('\u0452', "dj"), Map.entry('\u0458', "j"),
+                Map.entry('\u0459', "lj"), Map.entry('\u045a', "nj"), Map.entry('\u045b', "c"), Map.entry('\u045f', "dz")
+        );
+
+        final String[] table = new String[TRANSLITERATION_TABLE_SIZE];
+        for (int codePoint = 0x80; codePoint < TRANSLITERATION_TABLE_SIZE; codePoint++) {
+            final char lowerCase = Character.toLowerCase((char) codePoint);
+            String transliteration = letters.get(lowerCase);
+            if (transliteration == null) {
+                // Letters with diacritics are spelled as their base letter
+                final String decomposed = Normalizer.normalize(String.valueOf(lowerCase), Normalizer.Form.NFD);
+                final char base = decomposed.charAt(0);
+                if (decomposed.length() > 1 && base >= 'a' && base <= 'z') {
+                    transliteration = String.valueOf(base);
+                } else if (decomposed.length() > 1) {
+                    transliteration = letters.get(base);
+                }
+            }
+            table[codePoint] = transliteration;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import jakarta.annotation.Nonnull;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed set of locks shared by keys with the same hash, so that work on the same key is serialized without keeping
+ * a lock per key.
+ * <p>
+ * Locks are neither reentrant nor owned by a thread: a lock taken by one thread may be released by another, e.g.
+ * from a transaction completion callback. Unrelated keys may share a stripe and wait for each other.
+ */
+public final class StripedLock {
+
+    private final Semaphore[] stripes;
+
+    public StripedLock(int minStripes) {
+        if (minStripes <= 0) {
+            throw new IllegalArgumentException("Number of stripes must be positive");
+        }
+
+        int stripeCount = 1;
+        while (stripeCount < minStripes) {
+            stripeCount <<= 1;
+        }
+        this.stripes = new Semaphore[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Semaphore(1);
+        }
+    }
+
+    /**
+     * @return {@code true} if the lock of the key was taken and must be released with {@link #unlock},
+     * {@code false} if it was not available within the timeout
+     */
+    public boolean tryLock(@Nonnull Object key, @Nonnull Duration timeout) throws InterruptedException {
+        return stripeOf(key).tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void unlock(@Nonnull Object key) {
+        stripeOf(key).release();
+    }
+
+    public int stripes() {
+        return stripes.length;
+    }
+
+    private Semaphore stripeOf(Object key) {
+        final int hash = key.hashCode();
+        // Spread the higher bits, as only the lower ones select the stripe
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
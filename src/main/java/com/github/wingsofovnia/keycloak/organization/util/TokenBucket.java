@@ -0,0 +1,91 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import jakarta.annotation.Nonnull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * A lock-free token bucket rate limiter.
+ * <p>
+ * The bucket holds up to {@code capacity} tokens and starts full. Every permitted call takes one token, and tokens are
+ * refilled continuously at {@code capacity} per {@code refillPeriod}, so short bursts of up to {@code capacity} calls
+ * are allowed while the sustained rate is bounded.
+ */
+public final class TokenBucket {
+
+    private final long capacity;
+    private final double tokensPerMilli;
+    private final LongSupplier clock;
+    private final AtomicReference<Snapshot> snapshot;
+
+    public TokenBucket(long capacity, @Nonnull Duration refillPeriod) {
+        this(capacity, refillPeriod, System::currentTimeMillis);
+    }
+
+    TokenBucket(long capacity, @Nonnull Duration refillPeriod, @Nonnull LongSupplier clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Bucket capacity must be positive");
+        }
+        if (refillPeriod == null || refillPeriod.isNegative() || refillPeriod.isZero()) {
+            throw new IllegalArgumentException("Bucket refill period must be positive");
+        }
+
+        this.capacity = capacity;
+        this.tokensPerMilli = (double) capacity / refillPeriod.toMillis();
+        this.clock = clock;
+        this.snapshot = new AtomicReference<>(new Snapshot(capacity, clock.getAsLong()));
+    }
+
+    /**
+     * @return {@code true} if a token was taken and the call is permitted, {@code false} if it should be rejected
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            final Snapshot current = snapshot.get();
+            final long now = clock.getAsLong();
+            final double tokens = Math.min(capacity, current.tokens() + Math.max(0, now - current.refilledAt()) * tokensPerMilli);
+            if (tokens < 1) {
+                return false;
+            }
+
+            if (snapshot.compareAndSet(current, new Snapshot(tokens - 1, Math.max(now, current.refilledAt())))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns a token taken by {@link #tryAcquire} for a call that did not go through, up to the capacity.
+     */
+    public void release() {
+        while (true) {
+            final Snapshot current = snapshot.get();
+            final long now = clock.getAsLong();
+            final double tokens = Math.min(capacity, current.tokens() + Math.max(0, now - current.refilledAt()) * tokensPerMilli);
+            if (snapshot.compareAndSet(current, new Snapshot(Math.min(capacity, tokens + 1), Math.max(now, current.refilledAt())))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the time until the next token is available, zero if one is available now
+     */
+    public Duration timeToNextToken() {
+        final Snapshot current = snapshot.get();
+        final double tokens = Math.min(capacity, current.tokens() + Math.max(0, clock.getAsLong() - current.refilledAt()) * tokensPerMilli);
+        if (tokens >= 1) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis((long) Math.ceil((1 - tokens) / tokensPerMilli));
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    private record Snapshot(double tokens, long refilledAt) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.wingsofovnia.keycloak.organization.webhook;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.keycloak.models.OrganizationDomainModel;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.util.JsonSerialization;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Payload of the {@value #TYPE} webhook. The {@code id} is unique per event, so receivers can drop redelivered events.
+ */
+public record OrganizationCreatedEvent(@Nonnull String id,
+                                       @Nonnull Instant createdAt,
+                                       @Nonnull String realmId,
+                                       @Nonnull String realmName,
+                                       @Nonnull String organizationId,
+                                       @Nonnull String organizationName,
+                                       @Nullable String organizationAlias,
+                                       @Nonnull List<String> organizationDomains,
+                                       @Nonnull String userId,
+                                       @Nullable String userEmail) {
+
+    public static final String TYPE = "organization.created";
+
+    @Nonnull
+    public static OrganizationCreatedEvent of(@Nonnull RealmModel realm,
+                                              @Nonnull OrganizationModel organization,
+                                              @Nonnull UserModel user) {
+        return new OrganizationCreatedEvent(
+                UUID.randomUUID().toString(),
+                Instant.now(),
+                realm.getId(),
+                realm.getName(),
+                organization.getId(),
+                organization.getName(),
+                organization.getAlias(),
+                organization.getDomains().map(OrganizationDomainModel::getName).toList(),
+                user.getId(),
+                user.getEmail()
+        );
+    }
+
+    @Nonnull
+    public String toJson() {
+        final Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", id);
+        json.put("type", TYPE);
+        json.put("createdAt", createdAt.toString());
+        json.put("realm", Map.of("id", realmId, "name", realmName));
+
+        final Map<String, Object> organization = new LinkedHashMap<>();
+        organization.put("id", organizationId);
+        organization.put("name", organizationName);
+        organization.put("alias", organizationAlias);
+        organization.put("domains", organizationDomains);
+        json.put("organization", organization);
+
+        final Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", userId);
+        user.put("email", userEmail);
+        json.put("user", user);
+        try {
+            return JsonSerialization.writeValueAsString(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
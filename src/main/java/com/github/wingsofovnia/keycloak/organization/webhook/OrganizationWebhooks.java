@@ -0,0 +1,221 @@
+package com.github.wingsofovnia.keycloak.organization.webhook;
+
+import com.github.wingsofovnia.keycloak.organization.metrics.CreateOrganizationMetrics;
+import com.github.wingsofovnia.keycloak.organization.outbox.OrganizationOutbox;
+import com.github.wingsofovnia.keycloak.organization.outbox.OrganizationOutboxRelayTask;
+import jakarta.annotation.Nonnull;
+import org.jboss.logging.Logger;
+import org.keycloak.Config;
+import org.keycloak.models.AbstractKeycloakTransaction;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.models.utils.KeycloakModelUtils;
+import org.keycloak.services.scheduled.ClusterAwareScheduledTaskRunner;
+import org.keycloak.timer.TimerProvider;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Post-creation stage notifying external systems (billing, CRM, ...) of created organizations through a
+ * {@link WebhookDispatcher}, configured per node:
+ * <pre>
+ * --spi-required-action-create-organization-required-action-webhook-url=https://billing.example.com/hooks
+ * --spi-required-action-create-organization-required-action-webhook-secret=...
+ * </pre>
+ * Events are written to the {@link OrganizationOutbox} in the transaction creating the organization, queued for
+ * delivery once it is committed and delivered off the request path, so the endpoint adds no latency to the signup
+ * redirect. Events not delivered right away are relayed from the outbox every {@value #OUTBOX_POLL_INTERVAL_CONFIG}
+ * seconds, in batches of {@value #OUTBOX_BATCH_SIZE_CONFIG}.
+ */
+public final class OrganizationWebhooks {
+
+    public static final String WEBHOOK_URL_CONFIG = "webhook-url";
+    public static final String WEBHOOK_SECRET_CONFIG = "webhook-secret";
+    public static final String WEBHOOK_QUEUE_CAPACITY_CONFIG = "webhook-queue-capacity";
+    public static final int WEBHOOK_QUEUE_CAPACITY_DEFAULT_VALUE = 10_000;
+    public static final String WEBHOOK_BATCH_SIZE_CONFIG = "webhook-batch-size";
+    public static final int WEBHOOK_BATCH_SIZE_DEFAULT_VALUE = 50;
+    public static final String WEBHOOK_WORKERS_CONFIG = "webhook-workers";
+    public static final int WEBHOOK_WORKERS_DEFAULT_VALUE = 2;
+    public static final String WEBHOOK_MAX_ATTEMPTS_CONFIG = "webhook-max-attempts";
+    public static final int WEBHOOK_MAX_ATTEMPTS_DEFAULT_VALUE = 6;
+    public static final String OUTBOX_BATCH_SIZE_CONFIG = "outbox-batch-size";
+    public static final int OUTBOX_BATCH_SIZE_DEFAULT_VALUE = 100;
+    public static final String OUTBOX_POLL_INTERVAL_CONFIG = "outbox-poll-interval";
+    public static final long OUTBOX_POLL_INTERVAL_DEFAULT_VALUE = 10; // seconds
+
+    private static final Logger LOGGER = Logger.getLogger(OrganizationWebhooks.class);
+
+    private static final Duration OFFER_TIMEOUT = Duration.ofMillis(50);
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(500);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration CLOSE_GRACE_PERIOD = Duration.ofSeconds(5);
+
+    private final WebhookDispatcher dispatcher;
+    private final int outboxBatchSize;
+    private final long outboxPollIntervalMillis;
+    private final AtomicReference<KeycloakSessionFactory> sessionFactory;
+
+    private OrganizationWebhooks(WebhookDispatcher dispatcher,
+                                 int outboxBatchSize,
+                                 long outboxPollIntervalMillis,
+                                 AtomicReference<KeycloakSessionFactory> sessionFactory) {
+        this.dispatcher = dispatcher;
+        this.outboxBatchSize = outboxBatchSize;
+        this.outboxPollIntervalMillis = outboxPollIntervalMillis;
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * @return webhooks that notify nothing if no {@value #WEBHOOK_URL_CONFIG} is configured
+     */
+    @Nonnull
+    public static OrganizationWebhooks of(@Nonnull Config.Scope config, @Nonnull CreateOrganizationMetrics metrics) {
+        final String url = config.get(WEBHOOK_URL_CONFIG);
+        if (url == null || url.isBlank()) {
+            return new OrganizationWebhooks(null, 0, 0, new AtomicReference<>());
+        }
+
+        final WebhookDispatcher.Settings settings = new WebhookDispatcher.Settings(
+                URI.create(url.trim()),
+                config.get(WEBHOOK_SECRET_CONFIG),
+                config.getInt(WEBHOOK_QUEUE_CAPACITY_CONFIG, WEBHOOK_QUEUE_CAPACITY_DEFAULT_VALUE),
+                config.getInt(WEBHOOK_BATCH_SIZE_CONFIG, WEBHOOK_BATCH_SIZE_DEFAULT_VALUE),
+                config.getInt(WEBHOOK_WORKERS_CONFIG, WEBHOOK_WORKERS_DEFAULT_VALUE),
+                config.getInt(WEBHOOK_MAX_ATTEMPTS_CONFIG, WEBHOOK_MAX_ATTEMPTS_DEFAULT_VALUE),
+                OFFER_TIMEOUT,
+                INITIAL_BACKOFF,
+                MAX_BACKOFF,
+                REQUEST_TIMEOUT
+        );
+        final HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(REQUEST_TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        final AtomicReference<KeycloakSessionFactory> sessionFactory = new AtomicReference<>();
+        final WebhookDispatcher dispatcher = new WebhookDispatcher(settings, httpClient,
+                new OutboxListener(sessionFactory, metrics));
+        metrics.bindWebhookQueueSize(dispatcher::queueSize);
+        return new OrganizationWebhooks(
+                dispatcher,
+                config.getInt(OUTBOX_BATCH_SIZE_CONFIG, OUTBOX_BATCH_SIZE_DEFAULT_VALUE),
+                Duration.ofSeconds(config.getLong(OUTBOX_POLL_INTERVAL_CONFIG, OUTBOX_POLL_INTERVAL_DEFAULT_VALUE)).toMillis(),
+                sessionFactory
+        );
+    }
+
+    public boolean isEnabled() {
+        return dispatcher != null;
+    }
+
+    /**
+     * Starts delivering and schedules the outbox relay, to be called once the database is available.
+     */
+    public void start(@Nonnull KeycloakSessionFactory factory) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        sessionFactory.set(factory);
+        dispatcher.start();
+        KeycloakModelUtils.runJobInTransaction(factory, session -> {
+            final TimerProvider timer = session.getProvider(TimerProvider.class);
+            final OrganizationOutboxRelayTask relayTask = new OrganizationOutboxRelayTask(dispatcher, outboxBatchSize);
+            timer.schedule(
+                    new ClusterAwareScheduledTaskRunner(factory, relayTask, outboxPollIntervalMillis),
+                    outboxPollIntervalMillis,
+                    OrganizationOutboxRelayTask.TASK_NAME
+            );
+        });
+    }
+
+    /**
+     * Cancels the outbox relay and stops delivering, giving queued events {@link #CLOSE_GRACE_PERIOD} to be sent.
+     * Events left undelivered stay in the outbox and are relayed by another node or after a restart.
+     */
+    public void close(@Nonnull KeycloakSessionFactory factory) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        try {
+            KeycloakModelUtils.runJobInTransaction(factory, session ->
+                    session.getProvider(TimerProvider.class).cancelTask(OrganizationOutboxRelayTask.TASK_NAME));
+        } catch (RuntimeException e) {
+            LOGGER.debugf(e, "Failed to cancel %s task", OrganizationOutboxRelayTask.TASK_NAME);
+        }
+        dispatcher.close(CLOSE_GRACE_PERIOD);
+    }
+
+    /**
+     * Writes the {@link OrganizationCreatedEvent} to the outbox within the session transaction and queues it once the
+     * transaction commits, nothing is sent on rollback.
+     */
+    public void organizationCreated(@Nonnull KeycloakSession session,
+                                    @Nonnull OrganizationModel organization,
+                                    @Nonnull UserModel user) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        final OrganizationCreatedEvent organizationCreatedEvent = OrganizationCreatedEvent.of(session.getContext().getRealm(), organization, user);
+        final WebhookEvent event = new WebhookEvent(organizationCreatedEvent.id(), organizationCreatedEvent.toJson());
+        OrganizationOutbox.add(session, OrganizationCreatedEvent.TYPE, event);
+        session.getTransactionManager().enlistAfterCompletion(new AbstractKeycloakTransaction() {
+            @Override
+            protected void commitImpl() {
+                // Saves waiting for the relay; if the node stops first, the outbox lease expires and the relay sends it
+                dispatcher.offer(event);
+            }
+
+            @Override
+            protected void rollbackImpl() {
+                // The organization was not created
+            }
+        });
+    }
+
+    /**
+     * Removes delivered events from the outbox. Failed ones are relayed again once their lease expires, while rejected
+     * ones are released right away by the node rejecting them, so the relay picks them up on its next run on whichever
+     * node it runs.
+     */
+    private record OutboxListener(AtomicReference<KeycloakSessionFactory> sessionFactory,
+                                  CreateOrganizationMetrics metrics) implements WebhookDispatcher.Listener {
+
+        @Override
+        public void delivered(@Nonnull List<WebhookEvent> events) {
+            metrics.webhookEventsDelivered(events.size());
+            final List<String> eventIds = events.stream().map(WebhookEvent::id).toList();
+            try {
+                KeycloakModelUtils.runJobInTransaction(sessionFactory.get(), session -> OrganizationOutbox.remove(session, eventIds));
+            } catch (RuntimeException e) {
+                LOGGER.warnf(e, "Failed to remove %d delivered organization webhook events from the outbox, they will be delivered again", eventIds.size());
+            }
+        }
+
+        @Override
+        public void failed(@Nonnull List<WebhookEvent> events, @Nonnull String reason) {
+            metrics.webhookEventsFailed(events.size());
+            LOGGER.warnf("Failed to deliver %d organization webhook events, will retry from the outbox: %s", events.size(), reason);
+        }
+
+        @Override
+        public void rejected(@Nonnull WebhookEvent event) {
+            metrics.webhookEventRejected();
+            try {
+                KeycloakModelUtils.runJobInTransaction(sessionFactory.get(), session -> OrganizationOutbox.release(session, List.of(event.id())));
+                LOGGER.debugf("Organization webhook queue is full, event %s will be relayed from the outbox", event.id());
+            } catch (RuntimeException e) {
+                LOGGER.warnf(e, "Failed to release organization webhook event %s, it will be relayed once its lease expires", event.id());
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.github.wingsofovnia.keycloak.organization.webhook;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers JSON events to a webhook endpoint from worker threads, off the request path.
+ * <p>
+ * Events are buffered in a bounded queue and posted as JSON arrays of up to {@link Settings#batchSize()} events,
+ * so a backlog is drained with fewer requests. Failed deliveries are retried with exponential backoff and jitter,
+ * except for client errors other than 408 and 429. When the queue is full, {@link #offer(WebhookEvent)} waits up to
+ * {@link Settings#offerTimeout()} for room and then rejects the event, so a slow endpoint delays producers a little
+ * but never stalls them. Events are kept in memory only, durability is up to the producer and the {@link Listener}.
+ */
+public final class WebhookDispatcher implements AutoCloseable {
+
+    public static final String SIGNATURE_HEADER = "X-Webhook-Signature";
+
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(1);
+
+    private final Settings settings;
+    private final HttpClient httpClient;
+    private final Listener listener;
+    private final BlockingQueue<WebhookEvent> queue;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean isClosed;
+
+    public WebhookDispatcher(@Nonnull Settings settings, @Nonnull HttpClient httpClient, @Nonnull Listener listener) {
+        this.settings = settings;
+        this.httpClient = httpClient;
+        this.listener = listener;
+        this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+    }
+
+    public synchronized void start() {
+        if (!workers.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < settings.workers(); i++) {
+            final Thread worker = new Thread(this::work, "organization-webhook-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * @return {@code false} if the event was rejected because the queue stayed full or the dispatcher is closed
+     */
+    public boolean offer(@Nonnull WebhookEvent event) {
+        if (isClosed) {
+            listener.rejected(event);
+            return false;
+        }
+
+        try {
+            if (queue.offer(event, settings.offerTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        listener.rejected(event);
+        return false;
+    }
+
+    public int queueSize() {
+        return queue.size();
+    }
+
+    public int remainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    /**
+     * Stops accepting events and gives workers the given time to deliver the ones already queued.
+     */
+    public void close(@Nonnull Duration gracePeriod) {
+        isClosed = true;
+
+        final long deadline = System.nanoTime() + gracePeriod.toNanos();
+        final List<Thread> startedWorkers;
+        synchronized (this) {
+            startedWorkers = List.copyOf(workers);
+        }
+        for (Thread worker : startedWorkers) {
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        startedWorkers.forEach(Thread::interrupt);
+
+        final List<WebhookEvent> undelivered = new ArrayList<>();
+        queue.drainTo(undelivered);
+        if (!undelivered.isEmpty()) {
+            listener.failed(undelivered, "Closed before delivery");
+        }
+    }
+
+    @Override
+    public void close() {
+        close(Duration.ZERO);
+    }
+
+    private void work() {
+        final List<WebhookEvent> batch = new ArrayList<>(settings.batchSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                final WebhookEvent first = queue.poll(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (isClosed) {
+                        return;
+                    }
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, settings.batchSize() - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (!batch.isEmpty()) {
+                    listener.failed(List.copyOf(batch), "Interrupted");
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<WebhookEvent> batch) throws InterruptedException {
+        final StringBuilder body = new StringBuilder("[");
+        for (WebhookEvent event : batch) {
+            body.append(body.length() > 1 ? "," : "").append(event.json());
+        }
+        final HttpRequest request = requestOf(body.append(']').toString());
+
+        String failure = null;
+        for (int attempt = 1; attempt <= settings.maxAttempts(); attempt++) {
+            if (attempt > 1) {
+                Thread.sleep(backoffOf(attempt - 1).toMillis());
+            }
+
+            try {
+                final int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status >= 200 && status < 300) {
+                    listener.delivered(List.copyOf(batch));
+                    return;
+                }
+                failure = "HTTP " + status;
+                if (!isRetryable(status)) {
+                    break;
+                }
+            } catch (IOException e) {
+                failure = e.toString();
+            }
+        }
+        listener.failed(List.copyOf(batch), failure);
+    }
+
+    private HttpRequest requestOf(String body) {
+        final HttpRequest.Builder request = HttpRequest.newBuilder(settings.endpoint())
+                .timeout(settings.requestTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+        if (settings.secret() != null) {
+            request.header(SIGNATURE_HEADER, signatureOf(settings.secret(), body));
+        }
+        return request.build();
+    }
+
+    /**
+     * Full jitter over an exponentially growing window, so retries of several workers do not line up.
+     */
+    Duration backoffOf(int retry) {
+        final long initial = settings.initialBackoff().toMillis();
+        final long window = Math.min(settings.maxBackoff().toMillis(), initial << Math.min(retry - 1, 30));
+        return Duration.ofMillis(initial / 2 + ThreadLocalRandom.current().nextLong(Math.max(1, window - initial / 2 + 1)));
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 408 || status == 429 || status >= 500;
+    }
+
+    /**
+     * @return {@code sha256=} followed by the hex HMAC-SHA256 of the body, for receivers to verify the sender
+     */
+    @Nonnull
+    public static String signatureOf(@Nonnull String secret, @Nonnull String body) {
+        try {
+            final Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), SIGNATURE_ALGORITHM));
+            return "sha256=" + HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(SIGNATURE_ALGORITHM + " is not available", e);
+        }
+    }
+
+    public record Settings(@Nonnull URI endpoint,
+                           @Nullable String secret,
+                           int queueCapacity,
+                           int batchSize,
+                           int workers,
+                           int maxAttempts,
+                           @Nonnull Duration offerTimeout,
+                           @Nonnull Duration initialBackoff,
+                           @Nonnull Duration maxBackoff,
+                           @Nonnull Duration requestTimeout) {
+
+        public Settings {
+            if (queueCapacity < 1 || batchSize < 1 || workers < 1 || maxAttempts < 1) {
+                throw new IllegalArgumentException("Queue capacity, batch size, workers and attempts must be positive");
+            }
+        }
+    }
+
+    /**
+     * Receives delivery outcomes, invoked from worker threads (and from the offering thread for rejections).
+     */
+    public interface Listener {
+
+        void delivered(@Nonnull List<WebhookEvent> events);
+
+        void failed(@Nonnull List<WebhookEvent> events, @Nonnull String reason);
+
+        void rejected(@Nonnull WebhookEvent event);
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.wingsofovnia.keycloak.organization.webhook;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * A JSON event to deliver, identified by a deduplication key that is also part of the JSON, so receivers can drop
+ * events delivered more than once.
+ */
+public record WebhookEvent(@Nonnull String id, @Nonnull String json) {
+}
@@ -0,0 +1,25 @@
+<#import "template.ftl" as layout>
+<@layout.registrationLayout; section>
+    <#if section = "header">
+        ${msg("orgJoin")}
+    <#elseif section = "form">
+        <p>${msg("orgJoinHelpText", organizationName)}</p>
+        <br/>
+
+        <div id="kc-form">
+            <div id="kc-form-wrapper">
+                <form id="kc-join-organization-form" class="${properties.kcFormClass!}" action="${url.loginAction}"
+                      method="post">
+                    <div id="kc-form-buttons" class="${properties.kcFormGroupClass!}">
+                        <button tabindex="1"
+                                class="${properties.kcButtonClass!} ${properties.kcButtonPrimaryClass!} ${properties.kcButtonBlockClass!} ${properties.kcButtonLargeClass!}"
+                                name="join" id="kc-join" type="submit" value="true">${msg("orgJoinAccept", organizationName)}</button>
+                        <button tabindex="2"
+                                class="${properties.kcButtonClass!} ${properties.kcButtonDefaultClass!} ${properties.kcButtonBlockClass!} ${properties.kcButtonLargeClass!}"
+                                name="join" id="kc-create-instead" type="submit" value="false">${msg("orgJoinDecline")}</button>
+                    </div>
+                </form>
+            </div>
+        </div>
+    </#if>
+</@layout.registrationLayout>
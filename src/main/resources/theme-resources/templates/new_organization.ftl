@@ -10,6 +10,8 @@
             <div id="kc-form-wrapper">
                 <form id="kc-create-organization-form" class="${properties.kcFormClass!}" action="${url.loginAction}"
                       method="post">
+                    <input type="hidden" name="submissionToken" value="${submissionToken}"/>
+
                     <div class="${properties.kcFormGroupClass!}">
                         <label for="orgName" class="${properties.kcLabelClass!}">
                             <strong>${msg("orgNameLabel")}</strong>
@@ -35,6 +37,13 @@
                                 ${kcSanitize(messagesPerField.get('orgName'))?no_esc}
                             </span>
                         </#if>
+
+                        <span id="input-availability-orgName" class="${properties.kcInputHelperTextBeforeClass!}"
+                              aria-live="polite" hidden
+                              data-url="${nameAvailableUrl}"
+                              data-available="${msg("orgNameAvailable")}"
+                              data-taken="${msg("orgExists")}">
+                        </span>
                     </div>
 
                     <#list attributes?keys as attributeName>
@@ -100,7 +109,148 @@
                                name="submit" id="kc-submit" type="submit" value="${msg("doSubmit")}"/>
                     </div>
                 </form>
+
+                <#if isJoinRequestEnabled>
+                    <br/>
+                    <p>${msg("orgJoinRequestHelpText")}</p>
+
+                    <form id="kc-join-request-form" class="${properties.kcFormClass!}" action="${url.loginAction}"
+                          method="post">
+                        <input type="hidden" id="joinRequest" name="joinRequest" value=""/>
+
+                        <div class="${properties.kcFormGroupClass!}">
+                            <label for="orgJoinSearch" class="${properties.kcLabelClass!}">
+                                <strong>${msg("orgJoinRequestLabel")}</strong>
+                            </label>
+
+                            <input
+                                    tabindex="5"
+                                    id="orgJoinSearch"
+                                    aria-invalid="<#if messagesPerField.existsError('joinRequest')>true</#if>"
+                                    class="${properties.kcInputClass!}"
+                                    type="text"
+                                    list="orgJoinSearchResults"
+                                    autocomplete="off"
+                                    minLength="2"
+                                    required
+                                    dir="ltr"
+                                    data-url="${organizationSearchUrl}"
+                            />
+                            <datalist id="orgJoinSearchResults"></datalist>
+
+                            <#if messagesPerField.existsError('joinRequest')>
+                                <span id="input-error-joinRequest" class="${properties.kcInputErrorMessageClass!}"
+                                      aria-live="polite">
+                                    ${kcSanitize(messagesPerField.get('joinRequest'))?no_esc}
+                                </span>
+                            </#if>
+                        </div>
+
+                        <div class="${properties.kcFormGroupClass!}">
+                            <input tabindex="6"
+                                   class="${properties.kcButtonClass!} ${properties.kcButtonDefaultClass!} ${properties.kcButtonBlockClass!} ${properties.kcButtonLargeClass!}"
+                                   name="submitJoinRequest" id="kc-join-request" type="submit" value="${msg("orgJoinRequestSubmit")}"/>
+                        </div>
+                    </form>
+                </#if>
             </div>
         </div>
+
+        <#if isJoinRequestEnabled>
+            <script>
+                (function () {
+                    const input = document.getElementById("orgJoinSearch");
+                    const results = document.getElementById("orgJoinSearchResults");
+                    const joinRequest = document.getElementById("joinRequest");
+                    const debounceMillis = 300;
+                    let organizationIds = new Map();
+                    let timer;
+                    let pending;
+
+                    input.addEventListener("input", function () {
+                        // Only names picked from the results identify an organization
+                        joinRequest.value = organizationIds.get(input.value) || "";
+
+                        clearTimeout(timer);
+                        if (pending) {
+                            pending.abort();
+                        }
+
+                        const search = input.value.trim();
+                        if (joinRequest.value || search.length < input.minLength) {
+                            return;
+                        }
+
+                        timer = setTimeout(function () {
+                            pending = new AbortController();
+                            const url = new URL(input.dataset.url);
+                            url.searchParams.set("search", search);
+                            fetch(url, {signal: pending.signal, credentials: "same-origin"})
+                                .then(function (response) {
+                                    return response.ok ? response.json() : null;
+                                })
+                                .then(function (organizations) {
+                                    if (organizations === null || search !== input.value.trim()) {
+                                        return;
+                                    }
+                                    organizationIds = new Map(organizations.map(function (organization) {
+                                        return [organization.name, organization.id];
+                                    }));
+                                    results.replaceChildren(...organizations.map(function (organization) {
+                                        const option = document.createElement("option");
+                                        option.value = organization.name;
+                                        return option;
+                                    }));
+                                })
+                                .catch(function () {
+                                });
+                        }, debounceMillis);
+                    });
+                })();
+            </script>
+        </#if>
+
+        <script>
+            (function () {
+                const input = document.getElementById("orgName");
+                const hint = document.getElementById("input-availability-orgName");
+                const debounceMillis = 400;
+                let timer;
+                let pending;
+
+                input.addEventListener("input", function () {
+                    clearTimeout(timer);
+                    if (pending) {
+                        pending.abort();
+                    }
+                    hint.hidden = true;
+
+                    const name = input.value.trim();
+                    if (name.length < input.minLength) {
+                        return;
+                    }
+
+                    timer = setTimeout(function () {
+                        pending = new AbortController();
+                        const url = new URL(hint.dataset.url);
+                        url.searchParams.set("name", name);
+                        fetch(url, {signal: pending.signal, credentials: "same-origin"})
+                            .then(function (response) {
+                                return response.ok ? response.json() : null;
+                            })
+                            .then(function (availability) {
+                                // Rate limited or failed checks are not shown, the form is validated on submit anyway
+                                if (availability === null || name !== input.value.trim()) {
+                                    return;
+                                }
+                                hint.textContent = availability.available ? hint.dataset.available : hint.dataset.taken;
+                                hint.hidden = false;
+                            })
+                            .catch(function () {
+                            });
+                    }, debounceMillis);
+                });
+            })();
+        </script>
     </#if>
 </@layout.registrationLayout>
@@ -1,46 +1,79 @@
 package com.github.wingsofovnia.keycloak.organization;
 
+import com.github.wingsofovnia.keycloak.organization.util.DomainIdGenerator;
 import org.junit.jupiter.api.Test;
 
-import java.util.UUID;
-
-import static com.github.wingsofovnia.keycloak.organization.util.Organizations.organizationAliasOf;
-import static com.github.wingsofovnia.keycloak.organization.util.Organizations.randomDomainOf;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.generatedDomainOf;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.isValidDomainName;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.organizationSlugOf;
+import static com.github.wingsofovnia.keycloak.organization.util.Organizations.suffixedAliasOf;
+import static com.github.wingsofovnia.keycloak.organization.util.Slugifier.slugOf;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 
 class OrganizationsTest {
 
     @Test
-    void randomDomainOfTest() {
-        assertThat(randomDomainOf("My Organization")).endsWith("-my-organization");
-        assertThat(randomDomainOf("  My   Organization ")).endsWith("-my-organization");
-        assertThat(randomDomainOf("Org @ 123!")).endsWith("-org-123");
-        assertThat(randomDomainOf("MyOrg2023")).endsWith("-myorg2023");
-
-        assertThatCode(() -> UUID.fromString(randomDomainOf(null))).doesNotThrowAnyException();
-        assertThatCode(() -> UUID.fromString(randomDomainOf(""))).doesNotThrowAnyException();
-        assertThatCode(() -> UUID.fromString(randomDomainOf("   "))).doesNotThrowAnyException();
+    void organizationSlugOfTest() {
+        assertThat(organizationSlugOf("My Organization", false).alias()).isEqualTo("my_organization");
+        assertThat(organizationSlugOf("  My   Organization ", false).alias()).isEqualTo("my_organization");
+        assertThat(organizationSlugOf("Org @ 123!", false).alias()).isEqualTo("org_123");
+        assertThat(organizationSlugOf("MyOrg2023", false).alias()).isEqualTo("myorg2023");
+        assertThat(organizationSlugOf("SimilarAlias", false).alias()).isEqualTo("similaralias");
+        assertThat(organizationSlugOf("CaseSensitiveTEST", false).alias()).isEqualTo("casesensitivetest");
+        assertThat(organizationSlugOf("Special---Characters", false).alias()).isEqualTo("special_characters");
+        assertThat(organizationSlugOf("Caf\u00E9", false).alias()).isEqualTo("caf");
+        assertThat(organizationSlugOf("Caf\u00E9", true).alias()).isEqualTo("cafe");
+
+        assertThatThrownBy(() -> organizationSlugOf(null, true))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> organizationSlugOf("", true))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> organizationSlugOf("   ", true))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
-    void organizationAliasOfTest() {
-        assertThat(organizationAliasOf("My Organization")).isEqualTo("my_organization");
-        assertThat(organizationAliasOf("  My   Organization ")).isEqualTo("my_organization");
-        assertThat(organizationAliasOf("Org @ 123!")).isEqualTo("org_123");
-        assertThat(organizationAliasOf("MyOrg2023")).isEqualTo("myorg2023");
-        assertThat(organizationAliasOf("SimilarAlias")).isEqualTo("similaralias");
-        assertThat(organizationAliasOf("CaseSensitiveTEST")).isEqualTo("casesensitivetest");
-        assertThat(organizationAliasOf("Special---Characters")).isEqualTo("special_characters");
-
-        assertThatThrownBy(() -> organizationAliasOf(null))
-                .isInstanceOf(IllegalArgumentException.class);
-        assertThatThrownBy(() -> organizationAliasOf(""))
+    void generatedDomainOfTest() {
+        assertThat(generatedDomainOf(DomainIdGenerator.SHORT, slugOf("My Organization", true), 0)).matches("[0-9a-z]{12}-my-organization");
+        assertThat(generatedDomainOf(DomainIdGenerator.TIME_ORDERED, slugOf("Org @ 123!", true), 0)).matches("[0-9a-z]{16}-org-123");
+        assertThat(generatedDomainOf(DomainIdGenerator.SHORT, slugOf("   ", true), 0)).matches("[0-9a-z]{12}");
+        assertThat(generatedDomainOf(DomainIdGenerator.ALIAS_HASH, slugOf("Acme!", true), 0))
+                .isEqualTo(generatedDomainOf(DomainIdGenerator.ALIAS_HASH, slugOf("Acme!", true), 0))
+                .isNotEqualTo(generatedDomainOf(DomainIdGenerator.ALIAS_HASH, slugOf("Acme!", true), 1));
+        assertThat(generatedDomainOf(DomainIdGenerator.SHORT, slugOf("Caf\u00E9 M\u00FCller", true), 0)).matches("[0-9a-z]{12}-cafe-muller");
+        assertThat(generatedDomainOf(DomainIdGenerator.SHORT, slugOf("\u4E2D\u6587", true), 0)).matches("[0-9a-z]{12}");
+        assertThat(generatedDomainOf(DomainIdGenerator.UUID, slugOf("A very long organization name that does not fit in a label", true), 0))
+                .hasSizeLessThanOrEqualTo(63)
+                .doesNotEndWith("-")
+                .satisfies(domain -> assertThat(isValidDomainName(domain)).isTrue());
+    }
+
+    @Test
+    void suffixedAliasOfTest() {
+        assertThat(suffixedAliasOf("acme")).matches("acme_[a-z0-9]{4}");
+        assertThat(suffixedAliasOf("my_organization")).startsWith("my_organization_");
+
+        assertThatThrownBy(() -> suffixedAliasOf(null))
                 .isInstanceOf(IllegalArgumentException.class);
-        assertThatThrownBy(() -> organizationAliasOf("   "))
+        assertThatThrownBy(() -> suffixedAliasOf(" "))
                 .isInstanceOf(IllegalArgumentException.class);
     }
 
+    @Test
+    void isValidDomainNameTest() {
+        assertThat(isValidDomainName("example.com")).isTrue();
+        assertThat(isValidDomainName("sub.Example-1.co.uk")).isTrue();
+        assertThat(isValidDomainName(generatedDomainOf(DomainIdGenerator.UUID, slugOf("My Organization", true), 0))).isTrue();
+
+        assertThat(isValidDomainName(null)).isFalse();
+        assertThat(isValidDomainName("  ")).isFalse();
+        assertThat(isValidDomainName("-example.com")).isFalse();
+        assertThat(isValidDomainName("example-.com")).isFalse();
+        assertThat(isValidDomainName("example..com")).isFalse();
+        assertThat(isValidDomainName("exa mple.com")).isFalse();
+        assertThat(isValidDomainName("a".repeat(64) + ".com")).isFalse();
+    }
+
 }
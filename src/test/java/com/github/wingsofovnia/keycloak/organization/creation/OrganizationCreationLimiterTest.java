@@ -0,0 +1,71 @@
+package com.github.wingsofovnia.keycloak.organization.creation;
+
+import com.github.wingsofovnia.keycloak.organization.util.TokenBucket;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrganizationCreationLimiterTest {
+
+    private final OrganizationCreationLimiter limiter = new OrganizationCreationLimiter();
+
+    @Test
+    @DisplayName("Admits creations up to the client rate per address and per user")
+    void limitsClients() {
+        assertThat(tryAdmit("10.0.0.1", "jane", 2, 0)).isTrue();
+        assertThat(tryAdmit("10.0.0.1", "jane", 2, 0)).isTrue();
+        assertThat(tryAdmit("10.0.0.1", "jane", 2, 0)).isFalse();
+
+        // Another user behind the same address
+        assertThat(tryAdmit("10.0.0.1", "john", 2, 0)).isFalse();
+        // The same user from another address
+        assertThat(tryAdmit("10.0.0.2", "jane", 2, 0)).isFalse();
+        assertThat(tryAdmit("10.0.0.2", "john", 2, 0)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Admits creations up to the realm rate, whoever creates them")
+    void limitsRealms() {
+        assertThat(tryAdmit("10.0.0.1", "jane", 0, 2)).isTrue();
+        assertThat(tryAdmit("10.0.0.2", "john", 0, 2)).isTrue();
+        assertThat(tryAdmit("10.0.0.3", "jim", 0, 2)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Does not limit when rates are not set")
+    void admitsWithoutRates() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(tryAdmit("10.0.0.1", "jane", 0, 0)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Gives back the tokens of released creations")
+    void releasesTokens() {
+        assertThat(tryAdmit("10.0.0.1", "jane", 1, 1)).isTrue();
+        assertThat(tryAdmit("10.0.0.1", "jane", 1, 1)).isFalse();
+
+        limiter.bucketsOf("realm", "10.0.0.1", "jane", 1, 1).forEach(TokenBucket::release);
+        assertThat(tryAdmit("10.0.0.1", "jane", 1, 1)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Gives back the client tokens of creations rejected by the realm limit")
+    void releasesTokensOfRejectedCreations() {
+        assertThat(tryAdmit("10.0.0.1", "jane", 2, 1)).isTrue();
+        assertThat(tryAdmit("10.0.0.2", "john", 2, 1)).isFalse();
+
+        // The rejected attempt of john did not use up his own limit
+        final List<TokenBucket> johnBuckets = limiter.bucketsOf("realm", "10.0.0.2", "john", 2, 0);
+        assertThat(OrganizationCreationLimiter.tryAdmit(johnBuckets)).isEmpty();
+        assertThat(OrganizationCreationLimiter.tryAdmit(johnBuckets)).isEmpty();
+        assertThat(OrganizationCreationLimiter.tryAdmit(johnBuckets)).isPresent();
+    }
+
+    private boolean tryAdmit(String remoteAddr, String userId, long clientRate, long realmRate) {
+        return OrganizationCreationLimiter.tryAdmit(limiter.bucketsOf("realm", remoteAddr, userId, clientRate, realmRate)).isEmpty();
+    }
+}
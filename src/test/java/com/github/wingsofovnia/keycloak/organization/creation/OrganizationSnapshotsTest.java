@@ -0,0 +1,156 @@
+package com.github.wingsofovnia.keycloak.organization.creation;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.keycloak.connections.jpa.JpaConnectionProvider;
+import org.keycloak.models.KeycloakContext;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.OrganizationDomainModel;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.models.RealmModel;
+import org.keycloak.organization.OrganizationProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrganizationSnapshotsTest {
+
+    private final KeycloakSession session = mock(KeycloakSession.class);
+    private final OrganizationProvider organizationProvider = mock(OrganizationProvider.class);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Runnable> pausedLoads = new ArrayList<>();
+    private boolean isLoadPaused;
+
+    private final OrganizationSnapshots snapshots = new OrganizationSnapshots(
+            load -> {
+                if (isLoadPaused) {
+                    pausedLoads.add(load);
+                } else {
+                    load.run();
+                }
+            },
+            (sessionFactory, realmId) -> OrganizationSnapshots.load(session, realmId),
+            clock::get
+    );
+    private final OrganizationNameIndex nameIndex = new OrganizationNameIndex(snapshots);
+    private final OrganizationDomainIndex domainIndex = new OrganizationDomainIndex(snapshots);
+    private final OrganizationSearchIndex searchIndex = new OrganizationSearchIndex(snapshots);
+
+    @BeforeEach
+    void setUp() {
+        final KeycloakContext context = mock(KeycloakContext.class);
+        final RealmModel realm = mock(RealmModel.class);
+        when(realm.getId()).thenReturn("realm");
+        when(context.getRealm()).thenReturn(realm);
+        when(session.getContext()).thenReturn(context);
+        when(session.getProvider(OrganizationProvider.class)).thenReturn(organizationProvider);
+
+        final OrganizationModel acme = organizationOf("1", "Acme Anvils", "acme_anvils", "acme.com");
+        when(organizationProvider.getAllStream(eq(""), eq(false), anyInt(), anyInt()))
+                .thenAnswer(invocation -> Stream.of(acme));
+    }
+
+    @Test
+    @DisplayName("Answers name, domain and search indexes from one load per realm")
+    void loadsOncePerRealm() {
+        assertThat(nameIndex.findNamesConfusableWith(session, "ACME anvils")).containsExactly("Acme Anvils");
+        assertThat(nameIndex.mightContainAlias(session, "acme_anvils")).isTrue();
+        assertThat(domainIndex.findConflictOf(session, "eu.acme.com", true)).contains("acme.com");
+        assertThat(searchIndex.search(session, "anv", 10)).containsExactly("1");
+
+        verify(organizationProvider, times(1)).getAllStream(eq(""), eq(false), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Reads organizations with paged projections and their domains with one query")
+    @SuppressWarnings("unchecked")
+    void loadsProjections() {
+        final TypedQuery<Object[]> organizationQuery = mock(TypedQuery.class);
+        when(organizationQuery.setParameter(anyString(), any())).thenReturn(organizationQuery);
+        when(organizationQuery.setMaxResults(anyInt())).thenReturn(organizationQuery);
+        when(organizationQuery.getResultList()).thenReturn(List.<Object[]>of(new Object[]{"2", "Globex", "globex"}));
+        final TypedQuery<Object[]> domainQuery = mock(TypedQuery.class);
+        when(domainQuery.setParameter(anyString(), any())).thenReturn(domainQuery);
+        when(domainQuery.getResultList()).thenReturn(List.<Object[]>of(new Object[]{"2", "globex.com", Boolean.TRUE}));
+        final EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.createQuery(contains("from OrganizationEntity"), eq(Object[].class))).thenReturn(organizationQuery);
+        when(entityManager.createQuery(contains("from OrganizationDomainEntity"), eq(Object[].class))).thenReturn(domainQuery);
+        final JpaConnectionProvider jpaConnectionProvider = mock(JpaConnectionProvider.class);
+        when(jpaConnectionProvider.getEntityManager()).thenReturn(entityManager);
+        when(session.getProvider(JpaConnectionProvider.class)).thenReturn(jpaConnectionProvider);
+
+        assertThat(nameIndex.findNamesConfusableWith(session, "Globex")).containsExactly("Globex");
+        assertThat(domainIndex.findVerifiedOrganizationIdOf(session, "globex.com")).contains("2");
+        assertThat(searchIndex.search(session, "glo", 10)).containsExactly("2");
+        verify(organizationQuery).setParameter("lastOrganizationId", "");
+        verify(organizationProvider, never()).getAllStream(anyString(), anyBoolean(), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Adds organizations created on this node to all indexes")
+    void addsOrganizations() {
+        snapshots.add(session, organizationOf("2", "Globex", "globex", "globex.com"));
+
+        assertThat(nameIndex.findNamesConfusableWith(session, "Globex")).containsExactly("Globex");
+        assertThat(domainIndex.findConflictOf(session, "globex.com", false)).contains("globex.com");
+        assertThat(searchIndex.search(session, "glo", 10)).containsExactly("2");
+    }
+
+    @Test
+    @DisplayName("Loads the realm again once invalidated")
+    void reloadsInvalidatedRealm() {
+        nameIndex.mightContainAlias(session, "acme_anvils");
+        snapshots.invalidateRealm("realm");
+        nameIndex.mightContainAlias(session, "acme_anvils");
+
+        verify(organizationProvider, times(2)).getAllStream(eq(""), eq(false), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Keeps serving the expired snapshot until the reloaded one is ready")
+    void servesExpiredSnapshotWhileReloading() {
+        assertThat(nameIndex.mightContainAlias(session, "acme_anvils")).isTrue();
+
+        final OrganizationModel globex = organizationOf("2", "Globex", "globex", "globex.com");
+        when(organizationProvider.getAllStream(eq(""), eq(false), anyInt(), anyInt()))
+                .thenAnswer(invocation -> Stream.of(globex));
+        clock.addAndGet(OrganizationSnapshots.RELOAD_INTERVAL.toMillis());
+        isLoadPaused = true;
+
+        assertThat(nameIndex.mightContainAlias(session, "acme_anvils")).isTrue();
+        assertThat(nameIndex.mightContainAlias(session, "globex")).isFalse();
+        assertThat(pausedLoads).hasSize(1);
+
+        pausedLoads.forEach(Runnable::run);
+        assertThat(nameIndex.mightContainAlias(session, "acme_anvils")).isFalse();
+        assertThat(nameIndex.mightContainAlias(session, "globex")).isTrue();
+    }
+
+    private static OrganizationModel organizationOf(String id, String name, String alias, String domain) {
+        final OrganizationModel organization = mock(OrganizationModel.class);
+        when(organization.getId()).thenReturn(id);
+        when(organization.getName()).thenReturn(name);
+        when(organization.getAlias()).thenReturn(alias);
+        when(organization.getDomains()).thenAnswer(invocation -> Stream.of(new OrganizationDomainModel(domain, true)));
+        return organization;
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.wingsofovnia.keycloak.organization.membership;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.UserModel;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrganizationMembershipCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private final RealmModel realm = mock(RealmModel.class);
+    private final UserModel user = mock(UserModel.class);
+
+    private final OrganizationMembershipCache cache = new OrganizationMembershipCache();
+
+    @BeforeEach
+    void setUp() {
+        when(realm.getId()).thenReturn("realm");
+        when(user.getId()).thenReturn("user");
+    }
+
+    @Test
+    @DisplayName("Caches members until their membership is invalidated")
+    void cachesMembers() {
+        cache.markMember(realm, user, TTL, cache.versionOf(user));
+        assertThat(cache.isKnownMember(realm, user, TTL)).isTrue();
+
+        cache.invalidate("user");
+        assertThat(cache.isKnownMember(realm, user, TTL)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Does not cache members whose membership was invalidated during the lookup")
+    void skipsOutdatedLookups() {
+        final long version = cache.versionOf(user);
+        cache.invalidate("user"); // e.g. the user left while the lookup was running
+
+        cache.markMember(realm, user, TTL, version);
+        assertThat(cache.isKnownMember(realm, user, TTL)).isFalse();
+
+        cache.markMember(realm, user, TTL, cache.versionOf(user));
+        assertThat(cache.isKnownMember(realm, user, TTL)).isTrue();
+    }
+}
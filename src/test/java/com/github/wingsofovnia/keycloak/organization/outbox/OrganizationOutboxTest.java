@@ -0,0 +1,139 @@
+package com.github.wingsofovnia.keycloak.organization.outbox;
+
+import com.github.wingsofovnia.keycloak.organization.webhook.WebhookEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.keycloak.connections.jpa.JpaConnectionProvider;
+import org.keycloak.models.KeycloakSession;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrganizationOutboxTest {
+
+    private static final long NOW = 1_000_000L;
+
+    private final KeycloakSession session = mock(KeycloakSession.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+
+    @BeforeEach
+    void setUp() {
+        final JpaConnectionProvider jpaConnectionProvider = mock(JpaConnectionProvider.class);
+        when(jpaConnectionProvider.getEntityManager()).thenReturn(entityManager);
+        when(session.getProvider(JpaConnectionProvider.class)).thenReturn(jpaConnectionProvider);
+    }
+
+    @Test
+    @DisplayName("Counts an attempt and extends the lease of leased events")
+    void leasesEvents() {
+        final OrganizationOutboxEventEntity event = eventOf("1", 3, NOW);
+
+        assertThat(OrganizationOutbox.lease(event, NOW)).isTrue();
+        assertThat(event.getAttempts()).isEqualTo(4);
+        assertThat(event.getNextAttemptTimestamp()).isEqualTo(NOW + OrganizationOutbox.DELIVERY_LEASE.toMillis());
+    }
+
+    @Test
+    @DisplayName("Does not lease events out of attempts")
+    void doesNotLeaseExpiredEvents() {
+        final OrganizationOutboxEventEntity event = eventOf("1", OrganizationOutbox.MAX_ATTEMPTS, NOW);
+
+        assertThat(OrganizationOutbox.lease(event, NOW)).isFalse();
+        assertThat(event.getAttempts()).isEqualTo(OrganizationOutbox.MAX_ATTEMPTS);
+        assertThat(event.getNextAttemptTimestamp()).isEqualTo(NOW);
+    }
+
+    @Test
+    @DisplayName("Releases events as due without counting the attempt")
+    void releasesEvents() {
+        final OrganizationOutboxEventEntity event = eventOf("1", 2, NOW + OrganizationOutbox.DELIVERY_LEASE.toMillis());
+
+        OrganizationOutbox.release(event, NOW);
+
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(event.getNextAttemptTimestamp()).isEqualTo(NOW);
+    }
+
+    @Test
+    @DisplayName("Does not count attempts below zero when releasing")
+    void clampsReleasedAttempts() {
+        final OrganizationOutboxEventEntity event = eventOf("1", 0, NOW);
+
+        OrganizationOutbox.release(event, NOW);
+        OrganizationOutbox.release(event, NOW);
+
+        assertThat(event.getAttempts()).isZero();
+    }
+
+    @Test
+    @DisplayName("Releases events by ID, skipping events already removed")
+    void releasesEventsById() {
+        final OrganizationOutboxEventEntity event = eventOf("1", 2, Long.MAX_VALUE);
+        when(entityManager.find(OrganizationOutboxEventEntity.class, "1")).thenReturn(event);
+
+        OrganizationOutbox.release(session, List.of("1", "2"));
+
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(event.getNextAttemptTimestamp()).isLessThanOrEqualTo(System.currentTimeMillis());
+    }
+
+    @Test
+    @DisplayName("Leases due events and drops those out of attempts")
+    @SuppressWarnings("unchecked")
+    void dropsEventsOutOfAttempts() {
+        final OrganizationOutboxEventEntity due = eventOf("1", 1, NOW);
+        final OrganizationOutboxEventEntity expired = eventOf("2", OrganizationOutbox.MAX_ATTEMPTS, NOW);
+        final TypedQuery<OrganizationOutboxEventEntity> findDue = mock(TypedQuery.class);
+        when(entityManager.createNamedQuery(OrganizationOutboxEventEntity.FIND_DUE, OrganizationOutboxEventEntity.class)).thenReturn(findDue);
+        when(findDue.setParameter(eq("now"), anyLong())).thenReturn(findDue);
+        when(findDue.setMaxResults(anyInt())).thenReturn(findDue);
+        when(findDue.getResultList()).thenReturn(List.of(due, expired));
+        final Query deleteByIds = mock(Query.class);
+        when(entityManager.createNamedQuery(OrganizationOutboxEventEntity.DELETE_BY_IDS)).thenReturn(deleteByIds);
+        when(deleteByIds.setParameter(anyString(), any())).thenReturn(deleteByIds);
+
+        final List<WebhookEvent> leasedEvents = OrganizationOutbox.leaseDue(session, 10);
+
+        assertThat(leasedEvents).extracting(WebhookEvent::id).containsExactly("1");
+        assertThat(due.getAttempts()).isEqualTo(2);
+        verify(deleteByIds).setParameter("ids", List.of("2"));
+        verify(deleteByIds).executeUpdate();
+    }
+
+    @Test
+    @DisplayName("Drops nothing while all due events have attempts left")
+    @SuppressWarnings("unchecked")
+    void keepsEventsWithAttemptsLeft() {
+        final TypedQuery<OrganizationOutboxEventEntity> findDue = mock(TypedQuery.class);
+        when(entityManager.createNamedQuery(OrganizationOutboxEventEntity.FIND_DUE, OrganizationOutboxEventEntity.class)).thenReturn(findDue);
+        when(findDue.setParameter(eq("now"), anyLong())).thenReturn(findDue);
+        when(findDue.setMaxResults(anyInt())).thenReturn(findDue);
+        when(findDue.getResultList()).thenReturn(List.of(eventOf("1", OrganizationOutbox.MAX_ATTEMPTS - 1, NOW)));
+
+        assertThat(OrganizationOutbox.leaseDue(session, 10)).hasSize(1);
+        verify(entityManager, never()).createNamedQuery(OrganizationOutboxEventEntity.DELETE_BY_IDS);
+    }
+
+    private static OrganizationOutboxEventEntity eventOf(String id, int attempts, long nextAttemptTimestamp) {
+        final OrganizationOutboxEventEntity event = new OrganizationOutboxEventEntity();
+        event.setId(id);
+        event.setPayload("{}");
+        event.setAttempts(attempts);
+        event.setNextAttemptTimestamp(nextAttemptTimestamp);
+        return event;
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.wingsofovnia.keycloak.organization.provisioning;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProvisioningStepTest {
+
+    @Test
+    @DisplayName("Parses attribute, group and role steps")
+    void parsesSteps() {
+        assertThat(ProvisioningStep.parse("attribute:plan=free"))
+                .isEqualTo(new ProvisioningStep.SetAttribute("plan", "free"));
+        assertThat(ProvisioningStep.parse(" attribute : owner = ${user.email} "))
+                .isEqualTo(new ProvisioningStep.SetAttribute("owner", "${user.email}"));
+        assertThat(ProvisioningStep.parse("attribute:url=https://example.com/?a=b"))
+                .isEqualTo(new ProvisioningStep.SetAttribute("url", "https://example.com/?a=b"));
+        assertThat(ProvisioningStep.parse("group:/organizations/${organization.alias}/admins"))
+                .isEqualTo(new ProvisioningStep.JoinGroup("/organizations/${organization.alias}/admins"));
+        assertThat(ProvisioningStep.parse("role:billing-app.viewer"))
+                .isEqualTo(new ProvisioningStep.GrantRole("billing-app.viewer"));
+    }
+
+    @Test
+    @DisplayName("Rejects invalid steps")
+    void rejectsInvalidSteps() {
+        assertThatThrownBy(() -> ProvisioningStep.parse("plan=free")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProvisioningStep.parse("attribute:=free")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProvisioningStep.parse("group:admins")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProvisioningStep.parse("role:")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProvisioningStep.parse("client:billing-app")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProvisioningStep.parse("role:${realm.name}-admin"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("realm.name");
+    }
+
+    @Test
+    @DisplayName("Keeps user-controlled values out of role, group and attribute names")
+    void rejectsUnsafeVariables() {
+        assertThat(ProvisioningStep.parse("group:/orgs/${organization.alias}/admins"))
+                .isEqualTo(new ProvisioningStep.JoinGroup("/orgs/${organization.alias}/admins"));
+
+        assertThatThrownBy(() -> ProvisioningStep.parse("role:${organization.name}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProvisioningStep.parse("role:realm-management.${organization.alias}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProvisioningStep.parse("group:/${organization.alias}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProvisioningStep.parse("group:/orgs/${user.username}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProvisioningStep.parse("group:/orgs/${organization.name}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProvisioningStep.parse("attribute:${organization.name}=x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Resolves variables, missing values become empty")
+    void resolvesVariables() {
+        final Map<String, String> variables = Map.of(
+                ProvisioningStep.ORGANIZATION_ALIAS, "acme",
+                ProvisioningStep.USER_USERNAME, "j$doe"
+        );
+
+        assertThat(ProvisioningStep.resolve("/organizations/${organization.alias}/admins", variables))
+                .isEqualTo("/organizations/acme/admins");
+        assertThat(ProvisioningStep.resolve("${user.username}:${user.email}", variables)).isEqualTo("j$doe:");
+        assertThat(ProvisioningStep.resolve("no variables", variables)).isEqualTo("no variables");
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.wingsofovnia.keycloak.organization.routing;
+
+import com.github.wingsofovnia.keycloak.organization.creation.OrganizationDomainIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.OrganizationDomainModel;
+import org.keycloak.models.OrganizationModel;
+import org.keycloak.organization.OrganizationProvider;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmailDomainRouterTest {
+
+    private final KeycloakSession session = mock(KeycloakSession.class);
+    private final OrganizationProvider organizationProvider = mock(OrganizationProvider.class);
+    private final OrganizationModel organization = mock(OrganizationModel.class);
+    private final OrganizationDomainIndex domainIndex = mock(OrganizationDomainIndex.class);
+    private final AtomicBoolean isDomainVerified = new AtomicBoolean();
+
+    private final EmailDomainRouter router = new EmailDomainRouter(domainIndex);
+
+    @BeforeEach
+    void setUp() {
+        when(session.getProvider(OrganizationProvider.class)).thenReturn(organizationProvider);
+
+        when(organization.getId()).thenReturn("acme");
+        when(organization.isEnabled()).thenReturn(true);
+        when(organization.getDomains()).thenAnswer(invocation ->
+                Stream.of(new OrganizationDomainModel("acme.com", isDomainVerified.get())));
+        when(organizationProvider.getById(anyString())).thenReturn(organization);
+        when(domainIndex.findVerifiedOrganizationIdOf(eq(session), anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    @DisplayName("Routes to organizations the domain is verified for")
+    void routesToVerifiedDomains() {
+        isDomainVerified.set(true);
+        indexVerifiedDomain("acme.com");
+        indexVerifiedDomain("ACME.COM");
+
+        assertThat(router.organizationOfDomain(session, "acme.com")).contains(organization);
+        assertThat(router.organizationOfDomain(session, "ACME.COM")).contains(organization);
+        assertThat(router.organizationOfDomain(session, "other.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Does not route to organizations that only claim the domain")
+    void skipsUnverifiedDomains() {
+        isDomainVerified.set(false);
+
+        assertThat(router.organizationOfDomain(session, "acme.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Does not route to domains unverified since the index was loaded")
+    void confirmsVerificationWithDatabase() {
+        isDomainVerified.set(true);
+        indexVerifiedDomain("acme.com");
+        assertThat(router.organizationOfDomain(session, "acme.com")).contains(organization);
+
+        isDomainVerified.set(false);
+        assertThat(router.organizationOfDomain(session, "acme.com")).isEmpty();
+    }
+
+    private void indexVerifiedDomain(String domain) {
+        when(domainIndex.findVerifiedOrganizationIdOf(session, domain)).thenReturn(Optional.of("acme"));
+    }
+}
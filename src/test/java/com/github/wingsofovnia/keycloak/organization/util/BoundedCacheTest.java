@@ -0,0 +1,68 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedCacheTest {
+
+    @Test
+    @DisplayName("Returns cached values until they expire")
+    void expiresEntriesAfterTtl() {
+        final AtomicLong now = new AtomicLong();
+        final BoundedCache<String, Boolean> cache = new BoundedCache<>(10, Duration.ofSeconds(5), now::get);
+
+        cache.put("user", true);
+        now.set(4_999);
+        assertThat(cache.get("user")).contains(true);
+
+        now.set(5_000);
+        assertThat(cache.get("user")).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Evicts least recently used entries when full")
+    void evictsLeastRecentlyUsed() {
+        final BoundedCache<String, Integer> cache = new BoundedCache<>(2, Duration.ofMinutes(1));
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertThat(cache.get("a")).contains(1);
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(cache.get("c")).contains(3);
+    }
+
+    @Test
+    @DisplayName("Computes missing values once and invalidates on demand")
+    void computesAndInvalidates() {
+        final BoundedCache<String, Integer> cache = new BoundedCache<>(10, Duration.ofMinutes(1));
+
+        assertThat(cache.computeIfAbsent("a", key -> 1)).isEqualTo(1);
+        assertThat(cache.computeIfAbsent("a", key -> 2)).isEqualTo(1);
+
+        cache.invalidate("a");
+        assertThat(cache.get("a")).isEmpty();
+
+        cache.put("b", 2);
+        cache.invalidateAll();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Rejects non-positive bounds")
+    void rejectsInvalidBounds() {
+        assertThatThrownBy(() -> new BoundedCache<>(0, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BoundedCache<>(1, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
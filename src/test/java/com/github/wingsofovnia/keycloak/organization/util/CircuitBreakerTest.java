@@ -0,0 +1,59 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofSeconds(10), now::get);
+
+    @Test
+    @DisplayName("Trips open after consecutive failures only")
+    void tripsAfterConsecutiveFailures() {
+        assertThat(breaker.onFailure()).isFalse();
+        breaker.onSuccess();
+        assertThat(breaker.onFailure()).isFalse();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        assertThat(breaker.onFailure()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Lets a single probe through after the open duration and closes on its success")
+    void closesAfterSuccessfulProbe() {
+        breaker.onFailure();
+        breaker.onFailure();
+
+        now.set(10_000);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Re-opens when the probe fails")
+    void reopensAfterFailedProbe() {
+        breaker.onFailure();
+        breaker.onFailure();
+
+        now.set(10_000);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.onFailure()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        now.set(19_999);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+class DomainIdGeneratorTest {
+
+    @ParameterizedTest
+    @EnumSource(DomainIdGenerator.class)
+    @DisplayName("Generates valid and distinct domain labels")
+    void generatesDistinctDomainLabels(DomainIdGenerator generator) {
+        final Set<String> ids = new HashSet<>();
+        for (int attempt = 0; attempt < 10_000; attempt++) {
+            final String id = generator.idOf("acme", attempt);
+            assertThat(Organizations.isValidDomainName(id)).as(id).isTrue();
+            ids.add(id);
+        }
+        assertThat(ids).hasSize(10_000);
+    }
+
+    @Test
+    @DisplayName("Generates IDs of the documented lengths")
+    void generatesIdsOfDocumentedLengths() {
+        assertThatCode(() -> UUID.fromString(DomainIdGenerator.UUID.idOf("acme", 0))).doesNotThrowAnyException();
+        assertThat(DomainIdGenerator.TIME_ORDERED.idOf("acme", 0)).hasSize(16);
+        assertThat(DomainIdGenerator.SHORT.idOf("acme", 0)).hasSize(12);
+        assertThat(DomainIdGenerator.ALIAS_HASH.idOf("acme", 0)).hasSize(12);
+    }
+
+    @Test
+    @DisplayName("Orders time-ordered IDs by creation time")
+    void ordersTimeOrderedIds() throws InterruptedException {
+        final String earlier = DomainIdGenerator.TIME_ORDERED.idOf("acme", 0);
+        Thread.sleep(2);
+        final String later = DomainIdGenerator.TIME_ORDERED.idOf("acme", 0);
+
+        assertThat(earlier).isLessThan(later);
+    }
+
+    @Test
+    @DisplayName("Derives alias hash IDs from the alias and the attempt only")
+    void derivesAliasHashIdsDeterministically() {
+        final DomainIdGenerator generator = DomainIdGenerator.ALIAS_HASH;
+
+        assertThat(generator.idOf("acme", 0)).isEqualTo(generator.idOf("acme", 0));
+        assertThat(generator.idOf("acme", 0)).isNotEqualTo(generator.idOf("acme", 1));
+        assertThat(generator.idOf("acme", 0)).isNotEqualTo(generator.idOf("acme_corp", 0));
+    }
+}
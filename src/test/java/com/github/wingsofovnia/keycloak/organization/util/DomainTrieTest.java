@@ -0,0 +1,64 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DomainTrieTest {
+
+    private final DomainTrie<String> trie = new DomainTrie<>();
+
+    @Test
+    @DisplayName("Finds exact domains case-insensitively and without a trailing dot")
+    void findsExactDomains() {
+        trie.put("Acme.com.", "1");
+
+        assertThat(trie.get("acme.com")).contains("1");
+        assertThat(trie.get("ACME.COM")).contains("1");
+        assertThat(trie.get("com")).isEmpty();
+        assertThat(trie.get("sub.acme.com")).isEmpty();
+        assertThat(trie.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Finds the closest parent domain")
+    void findsParentDomain() {
+        trie.put("acme.com", "1");
+        trie.put("sub.acme.com", "2");
+
+        assertThat(trie.findParentOf("eu.sub.acme.com")).contains("sub.acme.com");
+        assertThat(trie.findParentOf("other.acme.com")).contains("acme.com");
+        assertThat(trie.findParentOf("acme.com")).isEmpty();
+        assertThat(trie.findParentOf("acme.org")).isEmpty();
+        assertThat(trie.findParentOf("notacme.com")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Finds subdomains")
+    void findsSubdomains() {
+        trie.put("eu.sub.acme.com", "1");
+
+        assertThat(trie.findSubdomainOf("acme.com")).contains("eu.sub.acme.com");
+        assertThat(trie.findSubdomainOf("sub.acme.com")).contains("eu.sub.acme.com");
+        assertThat(trie.findSubdomainOf("eu.sub.acme.com")).isEmpty();
+        assertThat(trie.findSubdomainOf("acme.org")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Forgets removed domains")
+    void removesDomains() {
+        trie.put("acme.com", "1");
+        trie.put("sub.acme.com", "2");
+
+        assertThat(trie.remove("sub.acme.com")).contains("2");
+        assertThat(trie.remove("sub.acme.com")).isEmpty();
+
+        assertThat(trie.findSubdomainOf("acme.com")).isEmpty();
+        assertThat(trie.get("acme.com")).contains("1");
+        assertThat(trie.size()).isEqualTo(1);
+
+        assertThat(trie.put("acme.com", "3")).contains("1");
+        assertThat(trie.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.github.wingsofovnia.keycloak.organization.util.OrganizationNames.normalizedNameOf;
+import static com.github.wingsofovnia.keycloak.organization.util.OrganizationNames.skeletonOf;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrganizationNamesTest {
+
+    @Test
+    @DisplayName("Normalizes compatibility characters, invisible characters and whitespace")
+    void normalizesNames() {
+        assertThat(normalizedNameOf("\uFF21\uFF43\uFF4D\uFF45")).isEqualTo("Acme");
+        assertThat(normalizedNameOf("Ac\u200Bme\uFEFF")).isEqualTo("Acme");
+        assertThat(normalizedNameOf("  Acme \u00A0\t Inc  ")).isEqualTo("Acme Inc");
+        assertThat(normalizedNameOf("\uFB01nance")).isEqualTo("finance");
+        assertThat(normalizedNameOf("\u0391cme")).isEqualTo("\u0391cme");
+    }
+
+    @Test
+    @DisplayName("Maps confusable names to the same skeleton")
+    void mapsConfusablesToSameSkeleton() {
+        assertThat(skeletonOf("Acme")).isEqualTo("acme");
+        assertThat(skeletonOf("ACME")).isEqualTo("acme");
+        assertThat(skeletonOf("\u0391cme")).isEqualTo("acme"); // Greek capital alpha
+        assertThat(skeletonOf("\u0410\u0441m\u0435")).isEqualTo("acme"); // Cyrillic a, es and ie
+        assertThat(skeletonOf("A\u200Dc\u200Cme")).isEqualTo("acme");
+        assertThat(skeletonOf("Acme C0rp")).isEqualTo(skeletonOf("acme corp"));
+    }
+
+    @Test
+    @DisplayName("Maps capital I, lower case l and digit one to the same skeleton")
+    void mapsVerticalStrokesToSameSkeleton() {
+        assertThat(skeletonOf("PayPaI")).isEqualTo(skeletonOf("PayPal"));
+        assertThat(skeletonOf("PayPa1")).isEqualTo(skeletonOf("PayPal"));
+        assertThat(skeletonOf("PayPa\u0399")).isEqualTo(skeletonOf("PayPal")); // Greek capital iota
+        assertThat(skeletonOf("PayPa\u0406")).isEqualTo(skeletonOf("PayPal")); // Cyrillic capital byelorussian-ukrainian i
+        assertThat(skeletonOf("Team 10")).isEqualTo(skeletonOf("Team lo"));
+        assertThat(skeletonOf("PayPai")).isNotEqualTo(skeletonOf("PayPal"));
+    }
+
+    @Test
+    @DisplayName("Keeps different names apart")
+    void keepsDifferentNamesApart() {
+        assertThat(skeletonOf("Acme")).isNotEqualTo(skeletonOf("Acne"));
+        assertThat(skeletonOf("Acme Inc")).isNotEqualTo(skeletonOf("AcmeInc"));
+        assertThat(skeletonOf("Caf\u00E9")).isNotEqualTo(skeletonOf("Cafe"));
+    }
+}
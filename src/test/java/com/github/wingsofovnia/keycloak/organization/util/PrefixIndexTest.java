@@ -0,0 +1,70 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrefixIndexTest {
+
+    private final PrefixIndex<String> index = new PrefixIndex<>();
+
+    @Test
+    @DisplayName("Finds values of keys starting with a prefix case-insensitively, in key order")
+    void findsValuesByPrefix() {
+        index.put("acme_corp", "1");
+        index.put("Acme", "2");
+        index.put("acorn", "3");
+        index.put("bacme", "4");
+
+        assertThat(index.search("ACME", 10)).containsExactly("2", "1");
+        assertThat(index.search("ac", 10)).containsExactly("2", "1", "3");
+        assertThat(index.search("acme_corp_eu", 10)).isEmpty();
+        assertThat(index.search("z", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Returns at most limit values")
+    void boundsResults() {
+        for (int i = 0; i < 100; i++) {
+            index.put("acme" + i, String.valueOf(i));
+        }
+
+        assertThat(index.search("acme", 5)).hasSize(5);
+        assertThat(index.search("acme", 0)).isEmpty();
+        assertThat(index.search("", 3)).hasSize(3);
+        assertThatThrownBy(() -> index.search("acme", -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Returns a value stored under several matching keys once")
+    void deduplicatesValues() {
+        index.put("acme_anvils", "1");
+        index.put("anvils", "1");
+        index.put("anvil_works", "2");
+
+        assertThat(index.search("a", 10)).containsExactly("1", "2");
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Forgets removed values")
+    void removesValues() {
+        index.put("acme", "1");
+        index.put("acme", "2");
+
+        assertThat(index.remove("ACME", "1")).isTrue();
+        assertThat(index.remove("acme", "1")).isFalse();
+        assertThat(index.remove("other", "2")).isFalse();
+
+        assertThat(index.search("acme", 10)).containsExactly("2");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Rejects blank keys")
+    void rejectsBlankKeys() {
+        assertThatThrownBy(() -> index.put(" ", "1")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
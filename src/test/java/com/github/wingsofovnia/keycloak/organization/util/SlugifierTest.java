@@ -0,0 +1,48 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import com.github.wingsofovnia.keycloak.organization.util.Slugifier.Slug;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.github.wingsofovnia.keycloak.organization.util.Slugifier.slugOf;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlugifierTest {
+
+    @Test
+    @DisplayName("Builds alias and domain label with collapsed delimiters")
+    void buildsAliasAndDomainLabel() {
+        assertThat(slugOf("My Organization", false)).isEqualTo(new Slug("my_organization", "my-organization"));
+        assertThat(slugOf("  My \t  Organization ", false)).isEqualTo(new Slug("my_organization", "my-organization"));
+        assertThat(slugOf("Special---Characters", false)).isEqualTo(new Slug("special_characters", "special-characters"));
+        assertThat(slugOf("_-Acme_ -", false)).isEqualTo(new Slug("acme", "acme"));
+        assertThat(slugOf("Org @ 123!", false)).isEqualTo(new Slug("org_123", "org-123"));
+        assertThat(slugOf("Acme\u00A0Inc", false)).isEqualTo(new Slug("acme_inc", "acme-inc"));
+    }
+
+    @Test
+    @DisplayName("Drops non-ASCII letters without transliteration")
+    void dropsNonAsciiLetters() {
+        assertThat(slugOf("Caf\u00E9", false).alias()).isEqualTo("caf");
+        assertThat(slugOf("\u0401\u043B\u043A\u0430", false).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Transliterates Latin letters with diacritics, Greek and Cyrillic")
+    void transliterates() {
+        assertThat(slugOf("Caf\u00E9 M\u00FCller", true)).isEqualTo(new Slug("cafe_muller", "cafe-muller"));
+        assertThat(slugOf("Stra\u00DFe \u0141\u00F3d\u017A", true).alias()).isEqualTo("strasse_lodz");
+        assertThat(slugOf("\u0401\u043B\u043A\u0430 \u0429\u0443\u043A\u0430", true).alias()).isEqualTo("yolka_shchuka");
+        assertThat(slugOf("\u041A\u0438\u0457\u0432", true).alias()).isEqualTo("kiyiv");
+        assertThat(slugOf("\u0391\u03B8\u03AE\u03BD\u03B1", true).alias()).isEqualTo("athina");
+        assertThat(slugOf("\u4E2D\u6587", true).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Does not end with a delimiter when the last word is spelled as nothing")
+    void skipsEmptyTransliterations() {
+        assertThat(slugOf("Acme \u044C", true)).isEqualTo(new Slug("acme", "acme"));
+        assertThat(slugOf("Acme \u044A\u044C Inc", true)).isEqualTo(new Slug("acme_inc", "acme-inc"));
+        assertThat(slugOf("\u044C Acme", true)).isEqualTo(new Slug("acme", "acme"));
+    }
+}
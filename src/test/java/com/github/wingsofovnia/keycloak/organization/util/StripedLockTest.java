@@ -0,0 +1,45 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedLockTest {
+
+    @Test
+    @DisplayName("Rounds the number of stripes up to a power of two")
+    void roundsStripesToPowerOfTwo() {
+        assertThat(new StripedLock(1).stripes()).isEqualTo(1);
+        assertThat(new StripedLock(2).stripes()).isEqualTo(2);
+        assertThat(new StripedLock(3).stripes()).isEqualTo(4);
+        assertThat(new StripedLock(64).stripes()).isEqualTo(64);
+        assertThat(new StripedLock(65).stripes()).isEqualTo(128);
+    }
+
+    @Test
+    @DisplayName("Serializes the same key until unlocked")
+    void serializesSameKey() throws InterruptedException {
+        final StripedLock lock = new StripedLock(16);
+
+        assertThat(lock.tryLock("user", Duration.ZERO)).isTrue();
+        assertThat(lock.tryLock("user", Duration.ofMillis(10))).isFalse();
+
+        lock.unlock("user");
+        assertThat(lock.tryLock("user", Duration.ZERO)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Can be unlocked by another thread")
+    void unlocksFromAnotherThread() throws Exception {
+        final StripedLock lock = new StripedLock(16);
+        assertThat(lock.tryLock("user", Duration.ZERO)).isTrue();
+
+        CompletableFuture.runAsync(() -> lock.unlock("user")).get();
+
+        assertThat(lock.tryLock("user", Duration.ZERO)).isTrue();
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.wingsofovnia.keycloak.organization.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final TokenBucket bucket = new TokenBucket(3, Duration.ofSeconds(3), now::get);
+
+    @Test
+    @DisplayName("Permits a burst up to the capacity")
+    void permitsBurstUpToCapacity() {
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+        assertThat(bucket.timeToNextToken()).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    @DisplayName("Takes back released tokens but never above the capacity")
+    void releasesTokens() {
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire();
+        }
+
+        bucket.release();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+
+        bucket.release();
+        bucket.release();
+        bucket.release();
+        bucket.release();
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire()).isTrue();
+        }
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Refills continuously but never above the capacity")
+    void refillsUpToCapacity() {
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire();
+        }
+
+        now.set(999);
+        assertThat(bucket.tryAcquire()).isFalse();
+
+        now.set(1_000);
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+
+        now.set(60_000);
+        assertThat(bucket.timeToNextToken()).isZero();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+}
@@ -0,0 +1,204 @@
+package com.github.wingsofovnia.keycloak.organization.webhook;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookDispatcherTest {
+
+    private final ConcurrentLinkedQueue<String> receivedBodies = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> receivedSignatures = new ConcurrentLinkedQueue<>();
+    private final RecordingListener listener = new RecordingListener();
+
+    private HttpServer server;
+    private volatile IntSupplier status = () -> 204;
+    private volatile Semaphore gate;
+
+    @BeforeEach
+    void startReceiver() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/hook", exchange -> {
+            try {
+                if (gate != null) {
+                    gate.acquireUninterruptibly();
+                }
+                receivedBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                final String signature = exchange.getRequestHeaders().getFirst(WebhookDispatcher.SIGNATURE_HEADER);
+                if (signature != null) {
+                    receivedSignatures.add(signature);
+                }
+                exchange.sendResponseHeaders(status.getAsInt(), -1);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopReceiver() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Delivers queued events in batches")
+    void deliversInBatches() throws InterruptedException {
+        gate = new Semaphore(0);
+        try (WebhookDispatcher dispatcher = dispatcherOf(settings(100, 10, 1, null))) {
+            dispatcher.start();
+            for (int i = 0; i < 25; i++) {
+                assertThat(dispatcher.offer(eventOf("{\"n\":" + i + "}"))).isTrue();
+            }
+            gate.release(100);
+
+            assertThat(listener.awaitDelivered(25)).isTrue();
+            // The first request may carry a single event taken before the rest was queued
+            assertThat(receivedBodies).hasSizeLessThanOrEqualTo(4);
+            assertThat(receivedBodies).allSatisfy(body -> assertThat(body).startsWith("[{\"n\":").endsWith("}]"));
+        }
+    }
+
+    @Test
+    @DisplayName("Retries server errors with backoff until delivered")
+    void retriesServerErrors() throws InterruptedException {
+        final AtomicInteger requests = new AtomicInteger();
+        status = () -> requests.incrementAndGet() < 3 ? 503 : 200;
+        try (WebhookDispatcher dispatcher = dispatcherOf(settings(10, 10, 1, null))) {
+            dispatcher.start();
+            dispatcher.offer(eventOf("{}"));
+
+            assertThat(listener.awaitDelivered(1)).isTrue();
+            assertThat(requests).hasValue(3);
+            assertThat(listener.failed).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Gives up on client errors without retrying")
+    void givesUpOnClientErrors() throws InterruptedException {
+        status = () -> 400;
+        try (WebhookDispatcher dispatcher = dispatcherOf(settings(10, 10, 1, null))) {
+            dispatcher.start();
+            dispatcher.offer(eventOf("{}"));
+
+            assertThat(listener.awaitFailed()).isTrue();
+            assertThat(receivedBodies).hasSize(1);
+            assertThat(listener.failureReason).isEqualTo("HTTP 400");
+        }
+    }
+
+    @Test
+    @DisplayName("Rejects events while the queue is full")
+    void rejectsWhenQueueIsFull() {
+        try (WebhookDispatcher dispatcher = dispatcherOf(settings(2, 10, 1, null))) {
+            // Not started, so nothing is taken off the queue
+            assertThat(dispatcher.offer(eventOf("{\"n\":1}"))).isTrue();
+            assertThat(dispatcher.offer(eventOf("{\"n\":2}"))).isTrue();
+            assertThat(dispatcher.offer(eventOf("{\"n\":3}"))).isFalse();
+            assertThat(listener.rejected).hasValue(1);
+            assertThat(dispatcher.queueSize()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("Signs batches with the shared secret")
+    void signsBatches() throws InterruptedException {
+        try (WebhookDispatcher dispatcher = dispatcherOf(settings(10, 10, 1, "s3cr3t"))) {
+            dispatcher.start();
+            dispatcher.offer(eventOf("{}"));
+
+            assertThat(listener.awaitDelivered(1)).isTrue();
+            assertThat(receivedSignatures).containsExactly(WebhookDispatcher.signatureOf("s3cr3t", "[{}]"));
+        }
+    }
+
+    @Test
+    @DisplayName("Reports events left in the queue on close")
+    void reportsUndeliveredOnClose() {
+        final WebhookDispatcher dispatcher = dispatcherOf(settings(10, 10, 1, null));
+        dispatcher.offer(eventOf("{}"));
+        dispatcher.close(Duration.ZERO);
+
+        assertThat(listener.failed).extracting(WebhookEvent::json).containsExactly("{}");
+        assertThat(dispatcher.offer(eventOf("{}"))).isFalse();
+    }
+
+    private static WebhookEvent eventOf(String json) {
+        return new WebhookEvent(UUID.randomUUID().toString(), json);
+    }
+
+    private WebhookDispatcher dispatcherOf(WebhookDispatcher.Settings settings) {
+        return new WebhookDispatcher(settings, HttpClient.newHttpClient(), listener);
+    }
+
+    private WebhookDispatcher.Settings settings(int queueCapacity, int batchSize, int workers, String secret) {
+        return new WebhookDispatcher.Settings(
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/hook"),
+                secret,
+                queueCapacity,
+                batchSize,
+                workers,
+                4,
+                Duration.ofMillis(10),
+                Duration.ofMillis(10),
+                Duration.ofMillis(50),
+                Duration.ofSeconds(5)
+        );
+    }
+
+    private static final class RecordingListener implements WebhookDispatcher.Listener {
+        private final AtomicInteger delivered = new AtomicInteger();
+        private final AtomicInteger rejected = new AtomicInteger();
+        private final ConcurrentLinkedQueue<WebhookEvent> failed = new ConcurrentLinkedQueue<>();
+        private final CountDownLatch failure = new CountDownLatch(1);
+        private volatile String failureReason;
+
+        @Override
+        public void delivered(List<WebhookEvent> events) {
+            delivered.addAndGet(events.size());
+        }
+
+        @Override
+        public void failed(List<WebhookEvent> events, String reason) {
+            failed.addAll(events);
+            failureReason = reason;
+            failure.countDown();
+        }
+
+        @Override
+        public void rejected(WebhookEvent event) {
+            rejected.incrementAndGet();
+        }
+
+        boolean awaitDelivered(int events) throws InterruptedException {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (delivered.get() < events && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            return delivered.get() >= events;
+        }
+
+        boolean awaitFailed() throws InterruptedException {
+            return failure.await(10, TimeUnit.SECONDS);
+        }
+    }
+}